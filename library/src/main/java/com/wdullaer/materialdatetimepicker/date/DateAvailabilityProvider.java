@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wdullaer.materialdatetimepicker.date;
+
+/**
+ * Supplies the selectable and highlighted days of the date picker one month at a time, for
+ * pickers whose availability comes from a slow source such as a network backend.
+ * The picker queries the months it displays, and the months around them, on a background
+ * thread and shows months that are still loading as disabled.
+ */
+public interface DateAvailabilityProvider {
+
+    /**
+     * Called on a background thread. Blocking is fine, the result is cached by the picker.
+     * @param year The year
+     * @param month The month (0-11) for compatibility with {@link java.util.Calendar}
+     * @return The availability of the days of the given month
+     */
+    MonthAvailability getAvailability(int year, int month);
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.wdullaer.materialdatetimepicker.date;
+
+/**
+ * A rule deciding which days can be selected in the date picker.
+ * See {@link DateConstraints} for the built-in rules and how to combine them.
+ */
+public interface DateConstraint {
+
+    /**
+     * @param year The year
+     * @param month The month (0-11) for compatibility with {@link java.util.Calendar}
+     * @param day The day of the month
+     * @return true if the given day can be selected
+     */
+    boolean isSelectable(int year, int month, int day);
+}
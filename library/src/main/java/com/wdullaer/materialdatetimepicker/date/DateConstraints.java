@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.wdullaer.materialdatetimepicker.date;
+
+import java.util.Calendar;
+
+/**
+ * Factory methods for the built-in {@link DateConstraint} rules.
+ * Rules can be combined, eg. weekdays only, except public holidays, up to 2 years out:
+ * <pre>
+ * DateConstraints.allOf(
+ *         DateConstraints.daysOfWeek(Calendar.MONDAY, Calendar.TUESDAY, Calendar.WEDNESDAY,
+ *                 Calendar.THURSDAY, Calendar.FRIDAY),
+ *         DateConstraints.except(holidays),
+ *         DateConstraints.between(today, twoYearsFromNow));
+ * </pre>
+ */
+public final class DateConstraints {
+
+    private DateConstraints() {
+    }
+
+    /**
+     * @param daysOfWeek The selectable days of the week, {@link Calendar#SUNDAY} through
+     *                   {@link Calendar#SATURDAY}
+     * @return A rule allowing only the given days of the week
+     */
+    public static DateConstraint daysOfWeek(int... daysOfWeek) {
+        int mask = 0;
+        for (int dayOfWeek : daysOfWeek) {
+            if (dayOfWeek < Calendar.SUNDAY || dayOfWeek > Calendar.SATURDAY) {
+                throw new IllegalArgumentException("Value must be between Calendar.SUNDAY and " +
+                        "Calendar.SATURDAY");
+            }
+            mask |= 1 << dayOfWeek;
+        }
+        return new DaysOfWeek(mask);
+    }
+
+    /**
+     * @param start The first selectable day
+     * @param end The last selectable day
+     * @return A rule allowing only the days between start and end, inclusive
+     */
+    public static DateConstraint between(Calendar start, Calendar end) {
+        return new Between(EpochDay.of(start), EpochDay.of(end));
+    }
+
+    /**
+     * @param days The selectable days
+     * @return A rule allowing only the given days
+     */
+    public static DateConstraint onlyOn(Calendar... days) {
+        return new InSet(new EpochDaySet(days), true);
+    }
+
+    /**
+     * @param days The days which can not be selected
+     * @return A rule allowing every day except the given days
+     */
+    public static DateConstraint except(Calendar... days) {
+        return new InSet(new EpochDaySet(days), false);
+    }
+
+    /**
+     * @return A rule allowing a day if all of the given rules allow it
+     */
+    public static DateConstraint allOf(DateConstraint... constraints) {
+        return new Composite(constraints.clone(), true);
+    }
+
+    /**
+     * @return A rule allowing a day if any of the given rules allows it
+     */
+    public static DateConstraint anyOf(DateConstraint... constraints) {
+        return new Composite(constraints.clone(), false);
+    }
+
+    /**
+     * @return A rule allowing exactly the days the given rule does not allow
+     */
+    public static DateConstraint not(final DateConstraint constraint) {
+        return new DateConstraint() {
+            @Override
+            public boolean isSelectable(int year, int month, int day) {
+                return !constraint.isSelectable(year, month, day);
+            }
+        };
+    }
+
+    private static class DaysOfWeek implements DateConstraint {
+        // The first day of the Gregorian calendar. Calendar, and so the month grid, uses the
+        // Julian calendar before it where EpochDay doesn't
+        private static final int GREGORIAN_CUTOVER = EpochDay.of(1582, Calendar.OCTOBER, 15);
+        // The Julian day number of the epoch of EpochDay
+        private static final int JULIAN_DAY_OF_EPOCH = 2440588;
+
+        // Bit n is set if Calendar day of week n is selectable
+        private final int mMask;
+
+        DaysOfWeek(int mask) {
+            mMask = mask;
+        }
+
+        @Override
+        public boolean isSelectable(int year, int month, int day) {
+            int firstDay = EpochDay.of(year, month, 1);
+            if (firstDay < GREGORIAN_CUTOVER) firstDay = ofJulian(year, month, 1);
+            // The same column the day is drawn in, the grid counts on from the first day
+            final int dayOfWeek = (EpochDay.dayOfWeek(firstDay) - Calendar.SUNDAY + day - 1) % 7
+                    + Calendar.SUNDAY;
+            return (mMask & (1 << dayOfWeek)) != 0;
+        }
+
+        /**
+         * @return The epoch day of the given date of the Julian calendar, for years after
+         * 4800 BC
+         */
+        private static int ofJulian(int year, int month, int day) {
+            // Counts years from March, so the leap day is the last day of the year
+            final int yearsBack = month < Calendar.MARCH ? 1 : 0;
+            final int y = year + 4800 - yearsBack;
+            final int m = month + 12 * yearsBack - Calendar.MARCH;
+            final int julianDay = day + (153 * m + 2) / 5 + 365 * y + y / 4 - 32083;
+            return julianDay - JULIAN_DAY_OF_EPOCH;
+        }
+    }
+
+    private static class Between implements DateConstraint {
+        private final int mStart;
+        private final int mEnd;
+
+        Between(int start, int end) {
+            mStart = start;
+            mEnd = end;
+        }
+
+        @Override
+        public boolean isSelectable(int year, int month, int day) {
+            int epochDay = EpochDay.of(year, month, day);
+            return epochDay >= mStart && epochDay <= mEnd;
+        }
+    }
+
+    private static class InSet implements DateConstraint {
+        private final EpochDaySet mDays;
+        private final boolean mInclude;
+
+        InSet(EpochDaySet days, boolean include) {
+            mDays = days;
+            mInclude = include;
+        }
+
+        @Override
+        public boolean isSelectable(int year, int month, int day) {
+            return mDays.contains(year, month, day) == mInclude;
+        }
+    }
+
+    private static class Composite implements DateConstraint {
+        private final DateConstraint[] mConstraints;
+        // true if every rule must allow the day, false if a single rule is enough
+        private final boolean mAll;
+
+        Composite(DateConstraint[] constraints, boolean all) {
+            mConstraints = constraints;
+            mAll = all;
+        }
+
+        @Override
+        public boolean isSelectable(int year, int month, int day) {
+            for (DateConstraint constraint : mConstraints) {
+                if (constraint.isSelectable(year, month, day) != mAll) return !mAll;
+            }
+            return mAll;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wdullaer.materialdatetimepicker.date;
+
+import android.os.Build;
+import android.text.format.DateFormat;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Shared, precomputed text used while drawing the date picker, so drawing doesn't have to
+ * format anything. Tables are built once per locale and rebuilt when the locale changes.
+ */
+final class DateLabels {
+    private static final int MAX_DAYS = 31;
+    private static final int MAX_MONTH_TITLES = 24;
+    private static final int MAX_YEAR_LABELS = 32;
+
+    private static Locale sDayNumberLocale;
+    private static String[] sDayNumbers;
+
+    private static final HashMap<Locale, SimpleDateFormat> sMonthAndYearFormats = new HashMap<>();
+    private static final Calendar sMonthAndYearCalendar = Calendar.getInstance();
+    // Keyed by year * 12 + month
+    private static final LabelCache sMonthTitles = new LabelCache(MAX_MONTH_TITLES);
+    // Keyed by year
+    private static final LabelCache sYearLabels = new LabelCache(MAX_YEAR_LABELS);
+
+    private static Locale sWeekDayLabelLocale;
+    // Indexed by the first day of the week, Calendar.SUNDAY through Calendar.SATURDAY
+    private static final String[][] sWeekDayLabels = new String[Calendar.SATURDAY + 1][];
+
+    private DateLabels() {
+    }
+
+    /**
+     * @param locale The locale to use the digits of
+     * @return The formatted day numbers, indexed by day of the month (1-31). Index 0 is unused
+     */
+    static synchronized String[] getDayNumbers(Locale locale) {
+        if (!locale.equals(sDayNumberLocale)) {
+            String[] dayNumbers = new String[MAX_DAYS + 1];
+            for (int day = 1; day <= MAX_DAYS; day++) {
+                dayNumbers[day] = String.format(locale, "%d", day);
+            }
+            sDayNumbers = dayNumbers;
+            sDayNumberLocale = locale;
+        }
+        return sDayNumbers;
+    }
+
+    /**
+     * @param locale The locale to format in
+     * @param legacyPattern The pattern to use before API 18, where the best pattern for a locale
+     *                      can't be looked up
+     * @param year The year
+     * @param month The month (0-11)
+     * @return The localized month and year, eg. "March 2016"
+     */
+    static synchronized String getMonthAndYear(Locale locale, String legacyPattern, int year, int month) {
+        final int key = MonthIndex.keyOf(year, month);
+        String title = sMonthTitles.get(locale, key);
+        if (title == null) {
+            // The middle of the month, so no time zone can move it to another month
+            sMonthAndYearCalendar.clear();
+            sMonthAndYearCalendar.set(year, month, 15);
+            title = getMonthAndYearFormat(locale, legacyPattern).format(sMonthAndYearCalendar.getTime());
+            sMonthTitles.put(key, title);
+        }
+        return title;
+    }
+
+    /**
+     * @param locale The locale to use the digits of
+     * @param year The year
+     * @return The formatted year, eg. "2016"
+     */
+    static synchronized String getYear(Locale locale, int year) {
+        String label = sYearLabels.get(locale, year);
+        if (label == null) {
+            label = String.format(locale, "%d", year);
+            sYearLabels.put(year, label);
+        }
+        return label;
+    }
+
+    private static SimpleDateFormat getMonthAndYearFormat(Locale locale, String legacyPattern) {
+        SimpleDateFormat formatter = sMonthAndYearFormats.get(locale);
+        if (formatter == null) {
+            String pattern;
+            if (Build.VERSION.SDK_INT < 18) pattern = legacyPattern;
+            else pattern = DateFormat.getBestDateTimePattern(locale, "MMMM yyyy");
+
+            formatter = new SimpleDateFormat(pattern, locale);
+            formatter.applyLocalizedPattern(pattern);
+            sMonthAndYearFormats.put(locale, formatter);
+        }
+        formatter.setTimeZone(sMonthAndYearCalendar.getTimeZone());
+        return formatter;
+    }
+
+    /**
+     * @param locale The locale of the labels
+     * @param weekStart The first day of the week, {@link Calendar#SUNDAY} through
+     *                  {@link Calendar#SATURDAY}
+     * @return The 1 or 2 letter labels of the days of the week, starting at weekStart
+     */
+    static synchronized String[] getWeekDayLabels(Locale locale, int weekStart) {
+        if (!locale.equals(sWeekDayLabelLocale)) {
+            Arrays.fill(sWeekDayLabels, null);
+            sWeekDayLabelLocale = locale;
+        }
+        String[] labels = sWeekDayLabels[weekStart];
+        if (labels == null) {
+            Calendar day = Calendar.getInstance();
+            labels = new String[DayPickerView.DAYS_PER_WEEK];
+            for (int i = 0; i < labels.length; i++) {
+                // Wraps around to Saturday, as Calendar treats day 0 as the day before Sunday
+                int calendarDay = (i + weekStart) % DayPickerView.DAYS_PER_WEEK;
+                day.set(Calendar.DAY_OF_WEEK, calendarDay == 0 ? Calendar.SATURDAY : calendarDay);
+                labels[i] = getWeekDayLabel(day, locale);
+            }
+            sWeekDayLabels[weekStart] = labels;
+        }
+        return labels;
+    }
+
+    /**
+     * Return a 1 or 2 letter String for use as a weekday label
+     * @param day The day for which to generate a label
+     * @param locale The locale of the label
+     * @return The weekday label
+     */
+    private static String getWeekDayLabel(Calendar day, Locale locale) {
+        // Localised short version of the string is not available on API < 18
+        if(Build.VERSION.SDK_INT < 18) {
+            String dayName = new SimpleDateFormat("E", locale).format(day.getTime());
+            String dayLabel = dayName.toUpperCase(locale).substring(0, 1);
+
+            // Chinese labels should be fetched right to left
+            if (locale.equals(Locale.CHINA) || locale.equals(Locale.CHINESE) || locale.equals(Locale.SIMPLIFIED_CHINESE) || locale.equals(Locale.TRADITIONAL_CHINESE)) {
+                int len = dayName.length();
+                dayLabel = dayName.substring(len -1, len);
+            }
+
+            // Most hebrew labels should select the second to last character
+            if (locale.getLanguage().equals("he") || locale.getLanguage().equals("iw")) {
+                if(day.get(Calendar.DAY_OF_WEEK) != Calendar.SATURDAY) {
+                    int len = dayName.length();
+                    dayLabel = dayName.substring(len - 2, len - 1);
+                }
+                else {
+                    // I know this is duplication, but it makes the code easier to grok by
+                    // having all hebrew code in the same block
+                    dayLabel = dayName.toUpperCase(locale).substring(0, 1);
+                }
+            }
+
+            // Catalan labels should be two digits in lowercase
+            if (locale.getLanguage().equals("ca"))
+                dayLabel = dayName.toLowerCase().substring(0,2);
+
+            // Correct single character label in Spanish is X
+            if (locale.getLanguage().equals("es") && day.get(Calendar.DAY_OF_WEEK) == Calendar.WEDNESDAY)
+                dayLabel = "X";
+
+            return dayLabel;
+        }
+        // Getting the short label is a one liner on API >= 18
+        return new SimpleDateFormat("EEEEE", locale).format(day.getTime());
+    }
+
+    /**
+     * The most recently used labels of a single locale, keyed by an int, most recent first.
+     * Plain arrays rather than an LruCache, so lookups don't box the key.
+     */
+    private static final class LabelCache {
+        private final int[] mKeys;
+        private final String[] mLabels;
+        private int mCount = 0;
+        private Locale mLocale;
+
+        LabelCache(int size) {
+            mKeys = new int[size];
+            mLabels = new String[size];
+        }
+
+        /**
+         * @return The label of the given key, null if it isn't cached. Drops all labels if the
+         * locale changed
+         */
+        String get(Locale locale, int key) {
+            if (!locale.equals(mLocale)) {
+                Arrays.fill(mLabels, null);
+                mCount = 0;
+                mLocale = locale;
+                return null;
+            }
+            for (int index = 0; index < mCount; index++) {
+                if (mKeys[index] == key) {
+                    String label = mLabels[index];
+                    moveToFront(index, key, label);
+                    return label;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Adds a label missing from the cache, dropping the least recently used one when full
+         */
+        void put(int key, String label) {
+            if (mCount < mKeys.length) mCount++;
+            moveToFront(mCount - 1, key, label);
+        }
+
+        private void moveToFront(int index, int key, String label) {
+            System.arraycopy(mKeys, 0, mKeys, 1, index);
+            System.arraycopy(mLabels, 0, mLabels, 1, index);
+            mKeys[0] = key;
+            mLabels[0] = label;
+        }
+    }
+}
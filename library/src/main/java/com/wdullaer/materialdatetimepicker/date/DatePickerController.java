@@ -33,12 +33,20 @@ public interface DatePickerController {
 
     MonthAdapter.CalendarDay getSelectedDay();
 
+    /**
+     * @return The selected date as an {@link EpochDay}. Unlike {@link #getSelectedDay()} this
+     * does not allocate, so it is safe to call while binding or drawing
+     */
+    int getSelectedEpochDay();
+
     boolean isThemeDark();
 
     int getAccentColor();
     
     Calendar[] getHighlightedDays();
 
+    int getHighlightedDayMask(int year, int month);
+
     Calendar[] getSelectableDays();
 
     int getFirstDayOfWeek();
@@ -51,7 +59,68 @@ public interface DatePickerController {
 
     Calendar getEndDate();
 
+    /**
+     * @return The first selectable date as an {@link EpochDay}
+     */
+    int getStartEpochDay();
+
+    /**
+     * @return The last selectable date as an {@link EpochDay}
+     */
+    int getEndEpochDay();
+
+    /**
+     * @return The mapping between the positions of the month list and the months of the
+     * selectable range. A new instance is returned when the range changes
+     */
+    MonthIndex getMonthIndex();
+
     boolean isOutOfRange(int year, int month, int day);
 
+    /**
+     * @return true if the availability of the given month is still being loaded. Doesn't queue
+     * the month for loading
+     */
+    boolean isMonthLoading(int year, int month);
+
+    /**
+     * Queues the availability of the given month for loading, if it isn't loaded yet
+     */
+    void loadAvailability(int year, int month);
+
+    /**
+     * Called with the month at the top of the list while scrolling, so the availability of the
+     * months around it can be loaded ahead of time
+     */
+    void prefetchAvailability(int year, int month);
+
+    /**
+     * @return The decorations of the given month, null if no {@link DayDecorator} has been set.
+     * Runs the decorator if the month isn't cached, so only call this while binding a month
+     */
+    MonthDecorations getDecorations(int year, int month);
+
+    /**
+     * @return The palette {@link MonthDecorations#setColorIndex(int, int)} refers to
+     */
+    int[] getDecorationColors();
+
+    /**
+     * @return The cache of the static content of months, null if render caching is disabled
+     */
+    MonthRenderCache getMonthRenderCache();
+
+    /**
+     * @return How the month list settles after a fling, one of {@link DatePickerDialog#SCROLL_SNAP},
+     * {@link DatePickerDialog#SCROLL_FREE} or {@link DatePickerDialog#SCROLL_PAGE}
+     */
+    int getScrollSnapMode();
+
+    /**
+     * @return true if the month list should be moved to a month boundary after a scroll ends
+     * away from one
+     */
+    boolean isSnapCorrectionEnabled();
+
     void tryVibrate();
 }
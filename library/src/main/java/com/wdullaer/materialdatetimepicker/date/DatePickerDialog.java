@@ -28,8 +28,10 @@ import android.support.annotation.ColorInt;
 import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
 import android.support.v4.content.ContextCompat;
+import android.support.v4.util.LruCache;
 import android.text.format.DateUtils;
 import android.util.Log;
+import android.util.SparseIntArray;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.View.OnClickListener;
@@ -52,6 +54,9 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Dialog allowing users to select a date.
@@ -61,6 +66,19 @@ public class DatePickerDialog extends DialogFragment implements
 
     private static final String TAG = "DatePickerDialog";
 
+    /**
+     * Flings of the month list end at the start of the month they would naturally stop in
+     */
+    public static final int SCROLL_SNAP = 0;
+    /**
+     * The month list scrolls freely and can stop in the middle of a month
+     */
+    public static final int SCROLL_FREE = 1;
+    /**
+     * Every fling of the month list moves exactly one month forward or back
+     */
+    public static final int SCROLL_PAGE = 2;
+
     private static final int UNINITIALIZED = -1;
     private static final int MONTH_AND_DAY_VIEW = 0;
     private static final int YEAR_VIEW = 1;
@@ -78,6 +96,8 @@ public class DatePickerDialog extends DialogFragment implements
     private static final String KEY_MAX_DATE = "max_date";
     private static final String KEY_HIGHLIGHTED_DAYS = "highlighted_days";
     private static final String KEY_SELECTABLE_DAYS = "selectable_days";
+    private static final String KEY_ENABLED_RANGES = "enabled_ranges";
+    private static final String KEY_DISABLED_RANGES = "disabled_ranges";
     private static final String KEY_THEME_DARK = "theme_dark";
     private static final String KEY_THEME_DARK_CHANGED = "theme_dark_changed";
     private static final String KEY_ACCENT = "accent";
@@ -90,10 +110,20 @@ public class DatePickerDialog extends DialogFragment implements
     private static final String KEY_OK_STRING = "ok_string";
     private static final String KEY_CANCEL_RESID = "cancel_resid";
     private static final String KEY_CANCEL_STRING = "cancel_string";
+    private static final String KEY_SCROLL_SNAP_MODE = "scroll_snap_mode";
+    private static final String KEY_SNAP_CORRECTION = "snap_correction";
+    private static final String KEY_RENDER_CACHE_SIZE = "render_cache_size";
 
 
     private static final int DEFAULT_START_YEAR = 1900;
     private static final int DEFAULT_END_YEAR = 2100;
+    private static final int DEFAULT_PREFETCH_WINDOW = 2;
+    // The number of months of availability kept in memory, on top of the prefetch window
+    private static final int AVAILABILITY_CACHE_MONTHS = 12;
+    // The number of months of decorations kept in memory
+    private static final int DECORATION_CACHE_MONTHS = 12;
+    // How far from the initial date setToNearestDate looks for a day the date constraint allows
+    private static final int MAX_CONSTRAINT_SEARCH_DAYS = 366;
 
     private static final int ANIMATION_DURATION = 300;
     private static final int ANIMATION_DELAY = 500;
@@ -122,11 +152,44 @@ public class DatePickerDialog extends DialogFragment implements
     private int mWeekStart = mCalendar.getFirstDayOfWeek();
     private int mMinYear = DEFAULT_START_YEAR;
     private int mMaxYear = DEFAULT_END_YEAR;
+    // The effective selectable range, derived from the options below by updateBounds()
+    private boolean mBoundsValid = false;
+    private Calendar mStartDate;
+    private Calendar mEndDate;
+    private int mStartDay;
+    private int mEndDay;
+    private int mMinYearBound;
+    private int mMaxYearBound;
+    private MonthIndex mMonthIndex;
+    private int mMinDateDay;
+    private int mMaxDateDay;
     private String mTitle;
     private Calendar mMinDate;
     private Calendar mMaxDate;
     private Calendar[] highlightedDays;
+    private EpochDaySet mHighlightedDaySet;
+    private final SparseIntArray mHighlightedDayMasks = new SparseIntArray();
     private Calendar[] selectableDays;
+    private EpochDaySet mSelectableDaySet;
+    private DateRangeSet mEnabledRanges;
+    private DateRangeSet mDisabledRanges;
+    // The enabled ranges minus the disabled ranges, computed in updateBounds. null without ranges
+    private DateRangeSet mSelectableRanges;
+    private DateConstraint mDateConstraint;
+    private final SparseIntArray mDateConstraintMasks = new SparseIntArray();
+    private DateAvailabilityProvider mAvailabilityProvider;
+    private Executor mAvailabilityExecutor;
+    private ExecutorService mDefaultAvailabilityExecutor;
+    private int mAvailabilityPrefetchWindow = DEFAULT_PREFETCH_WINDOW;
+    private MonthAvailabilityLoader mAvailabilityLoader;
+    private DayDecorator mDayDecorator;
+    private int[] mDecorationColors = new int[0];
+    // Keyed by year * 12 + month
+    private final LruCache<Integer, MonthDecorations> mDecorations =
+            new LruCache<>(DECORATION_CACHE_MONTHS);
+    private MonthRenderCache mMonthRenderCache;
+    private int mScrollSnapMode = SCROLL_SNAP;
+    private boolean mSnapCorrectionEnabled = true;
     private boolean mThemeDark = false;
     private boolean mThemeDarkChanged = false;
     private int mAccentColor = -1;
@@ -231,10 +294,24 @@ public class DatePickerDialog extends DialogFragment implements
             outState.putInt(KEY_LIST_POSITION_OFFSET, mYearPickerView.getFirstPositionOffset());
         }
         outState.putInt(KEY_LIST_POSITION, listPosition);
+        // The minimum and maximum date are returned as given by getMinDate() and getMaxDate(),
+        // so they keep their time and time zone
         outState.putSerializable(KEY_MIN_DATE, mMinDate);
         outState.putSerializable(KEY_MAX_DATE, mMaxDate);
-        outState.putSerializable(KEY_HIGHLIGHTED_DAYS, highlightedDays);
-        outState.putSerializable(KEY_SELECTABLE_DAYS, selectableDays);
+        // Lists of days are saved as packed epoch days: serializing a Calendar takes hundreds
+        // of bytes, and only the day is used
+        if (mHighlightedDaySet != null) {
+            outState.putParcelable(KEY_HIGHLIGHTED_DAYS, new PackedDateArray(mHighlightedDaySet.toArray()));
+        }
+        if (mSelectableDaySet != null) {
+            outState.putParcelable(KEY_SELECTABLE_DAYS, new PackedDateArray(mSelectableDaySet.toArray()));
+        }
+        if (mEnabledRanges != null) {
+            outState.putParcelable(KEY_ENABLED_RANGES, new PackedDateArray(mEnabledRanges.toArray()));
+        }
+        if (mDisabledRanges != null) {
+            outState.putParcelable(KEY_DISABLED_RANGES, new PackedDateArray(mDisabledRanges.toArray()));
+        }
         outState.putBoolean(KEY_THEME_DARK, mThemeDark);
         outState.putBoolean(KEY_THEME_DARK_CHANGED, mThemeDarkChanged);
         outState.putInt(KEY_ACCENT, mAccentColor);
@@ -247,6 +324,10 @@ public class DatePickerDialog extends DialogFragment implements
         outState.putString(KEY_OK_STRING, mOkString);
         outState.putInt(KEY_CANCEL_RESID, mCancelResid);
         outState.putString(KEY_CANCEL_STRING, mCancelString);
+        outState.putInt(KEY_SCROLL_SNAP_MODE, mScrollSnapMode);
+        outState.putBoolean(KEY_SNAP_CORRECTION, mSnapCorrectionEnabled);
+        outState.putInt(KEY_RENDER_CACHE_SIZE,
+                mMonthRenderCache != null ? mMonthRenderCache.maxSize() : 0);
     }
 
     @Override
@@ -279,8 +360,18 @@ public class DatePickerDialog extends DialogFragment implements
             listPositionOffset = savedInstanceState.getInt(KEY_LIST_POSITION_OFFSET);
             mMinDate = (Calendar)savedInstanceState.getSerializable(KEY_MIN_DATE);
             mMaxDate = (Calendar)savedInstanceState.getSerializable(KEY_MAX_DATE);
-            highlightedDays = (Calendar[])savedInstanceState.getSerializable(KEY_HIGHLIGHTED_DAYS);
-            selectableDays = (Calendar[])savedInstanceState.getSerializable(KEY_SELECTABLE_DAYS);
+            PackedDateArray highlighted = savedInstanceState.getParcelable(KEY_HIGHLIGHTED_DAYS);
+            highlightedDays = highlighted != null ? highlighted.toCalendars() : null;
+            mHighlightedDaySet = highlighted != null ? new EpochDaySet(highlighted.getEpochDays()) : null;
+            mHighlightedDayMasks.clear();
+            PackedDateArray selectable = savedInstanceState.getParcelable(KEY_SELECTABLE_DAYS);
+            selectableDays = selectable != null ? selectable.toCalendars() : null;
+            mSelectableDaySet = selectable != null ? new EpochDaySet(selectable.getEpochDays()) : null;
+            PackedDateArray enabledRanges = savedInstanceState.getParcelable(KEY_ENABLED_RANGES);
+            mEnabledRanges = enabledRanges != null ? new DateRangeSet(enabledRanges.getEpochDays()) : null;
+            PackedDateArray disabledRanges = savedInstanceState.getParcelable(KEY_DISABLED_RANGES);
+            mDisabledRanges = disabledRanges != null ? new DateRangeSet(disabledRanges.getEpochDays()) : null;
+            invalidateBounds();
             mThemeDark = savedInstanceState.getBoolean(KEY_THEME_DARK);
             mThemeDarkChanged = savedInstanceState.getBoolean(KEY_THEME_DARK_CHANGED);
             mAccentColor = savedInstanceState.getInt(KEY_ACCENT);
@@ -292,6 +383,12 @@ public class DatePickerDialog extends DialogFragment implements
             mOkString = savedInstanceState.getString(KEY_OK_STRING);
             mCancelResid = savedInstanceState.getInt(KEY_CANCEL_RESID);
             mCancelString = savedInstanceState.getString(KEY_CANCEL_STRING);
+            mScrollSnapMode = savedInstanceState.getInt(KEY_SCROLL_SNAP_MODE);
+            mSnapCorrectionEnabled = savedInstanceState.getBoolean(KEY_SNAP_CORRECTION);
+            // The cached bitmaps are not saved, only the budget
+            final int renderCacheSize = savedInstanceState.getInt(KEY_RENDER_CACHE_SIZE);
+            if (mMonthRenderCache != null) mMonthRenderCache.evictAll();
+            mMonthRenderCache = renderCacheSize > 0 ? new MonthRenderCache(renderCacheSize) : null;
         }
 
         final Activity activity = getActivity();
@@ -400,6 +497,17 @@ public class DatePickerDialog extends DialogFragment implements
         if(mDismissOnPause) dismiss();
     }
 
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        releaseAvailability();
+        if (mMonthRenderCache != null) mMonthRenderCache.evictAll();
+        if (mDefaultAvailabilityExecutor != null) {
+            mDefaultAvailabilityExecutor.shutdownNow();
+            mDefaultAvailabilityExecutor = null;
+        }
+    }
+
     @Override
     public void onCancel(DialogInterface dialog) {
         super.onCancel(dialog);
@@ -587,6 +695,7 @@ public class DatePickerDialog extends DialogFragment implements
 
         mMinYear = startYear;
         mMaxYear = endYear;
+        invalidateBounds();
         if (mDayPickerView != null) {
             mDayPickerView.onChange();
         }
@@ -600,6 +709,7 @@ public class DatePickerDialog extends DialogFragment implements
     @SuppressWarnings("unused")
     public void setMinDate(Calendar calendar) {
         mMinDate = calendar;
+        invalidateBounds();
 
         if (mDayPickerView != null) {
             mDayPickerView.onChange();
@@ -622,6 +732,7 @@ public class DatePickerDialog extends DialogFragment implements
     @SuppressWarnings("unused")
     public void setMaxDate(Calendar calendar) {
         mMaxDate = calendar;
+        invalidateBounds();
 
         if (mDayPickerView != null) {
             mDayPickerView.onChange();
@@ -645,6 +756,12 @@ public class DatePickerDialog extends DialogFragment implements
         // Sort the array to optimize searching over it later on
         Arrays.sort(highlightedDays);
         this.highlightedDays = highlightedDays;
+        mHighlightedDaySet = new EpochDaySet(highlightedDays);
+        mHighlightedDayMasks.clear();
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
     }
 
     /**
@@ -655,6 +772,33 @@ public class DatePickerDialog extends DialogFragment implements
         return highlightedDays;
     }
 
+    /**
+     * @param year The year
+     * @param month The month (0-11)
+     * @return A mask of the highlighted days in the given month: bit (day - 1) is set if the
+     * day should be highlighted. The masks are computed once per month and kept until the
+     * highlighted days change.
+     */
+    @Override
+    public int getHighlightedDayMask(int year, int month) {
+        int mask = 0;
+        if (mAvailabilityProvider != null) {
+            MonthAvailability availability = getAvailability(year, month);
+            if (availability != null) mask = availability.getHighlightedDayMask();
+        }
+        return mask | getHighlightedDaySetMask(year, month);
+    }
+
+    private int getHighlightedDaySetMask(int year, int month) {
+        if (mHighlightedDaySet == null) return 0;
+        final int key = year * MonthAdapter.MONTHS_IN_YEAR + month;
+        int index = mHighlightedDayMasks.indexOfKey(key);
+        if (index >= 0) return mHighlightedDayMasks.valueAt(index);
+        int mask = mHighlightedDaySet.getMonthMask(year, month);
+        mHighlightedDayMasks.put(key, mask);
+        return mask;
+    }
+
     /**
      * Set's a list of days which are the only valid selections.
      * Setting this value will take precedence over using setMinDate() and setMaxDate()
@@ -665,6 +809,9 @@ public class DatePickerDialog extends DialogFragment implements
         // Sort the array to optimize searching over it later on
         Arrays.sort(selectableDays);
         this.selectableDays = selectableDays;
+        invalidateBounds();
+        // Index the days once, so range checks don't need to walk the array
+        mSelectableDaySet = new EpochDaySet(selectableDays);
     }
 
     /**
@@ -675,6 +822,330 @@ public class DatePickerDialog extends DialogFragment implements
         return selectableDays;
     }
 
+    /**
+     * Sets the ranges of days which can be selected. Days outside of all ranges are disabled.
+     * Overlapping ranges are merged. Prefer this over setSelectableDays() when the selectable
+     * days form long stretches, as only the bounds of each range are stored.
+     * @param startDays The first day of each range
+     * @param endDays The last day of each range, in the same order as startDays.
+     *                Pass null for both arrays to remove the ranges
+     * @throws IllegalArgumentException if only one of the arrays is null, if their lengths
+     * differ, or if a range ends before it starts
+     */
+    @SuppressWarnings("unused")
+    public void setEnabledRanges(Calendar[] startDays, Calendar[] endDays) {
+        checkRanges(startDays, endDays);
+        mEnabledRanges = startDays != null ? new DateRangeSet(startDays, endDays) : null;
+        invalidateBounds();
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
+    }
+
+    /**
+     * Sets the ranges of days which can not be selected, eg. blackout periods.
+     * Overlapping ranges are merged.
+     * @param startDays The first day of each range
+     * @param endDays The last day of each range, in the same order as startDays.
+     *                Pass null for both arrays to remove the ranges
+     * @throws IllegalArgumentException if only one of the arrays is null, if their lengths
+     * differ, or if a range ends before it starts
+     */
+    @SuppressWarnings("unused")
+    public void setDisabledRanges(Calendar[] startDays, Calendar[] endDays) {
+        checkRanges(startDays, endDays);
+        mDisabledRanges = startDays != null ? new DateRangeSet(startDays, endDays) : null;
+        invalidateBounds();
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
+    }
+
+    private static void checkRanges(Calendar[] startDays, Calendar[] endDays) {
+        if ((startDays == null) != (endDays == null)) {
+            throw new IllegalArgumentException("Pass null for both the start and the end days to remove the ranges");
+        }
+        if (startDays == null) return;
+        if (startDays.length != endDays.length) {
+            throw new IllegalArgumentException("Every range must have a start and an end, got "
+                    + startDays.length + " start days and " + endDays.length + " end days");
+        }
+        for (int i = 0; i < startDays.length; i++) {
+            if (startDays[i] == null || endDays[i] == null) {
+                throw new IllegalArgumentException("The bounds of range " + i + " can't be null");
+            }
+        }
+    }
+
+    /**
+     * Sets a rule deciding which days can be selected, on top of the other restrictions.
+     * The rule is evaluated once per day, the first time a month is shown, so rules can cover
+     * any range without having to list every selectable date.
+     * Like the listeners, the rule is not saved with the instance state of the dialog. Set it
+     * again after a configuration change.
+     * @param constraint The rule to apply, see {@link DateConstraints}. null to remove it
+     */
+    @SuppressWarnings("unused")
+    public void setDateConstraint(DateConstraint constraint) {
+        mDateConstraint = constraint;
+        mDateConstraintMasks.clear();
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
+    }
+
+    /**
+     * @return The rule deciding which days can be selected. null if no rule has been set
+     */
+    @SuppressWarnings("unused")
+    public DateConstraint getDateConstraint() {
+        return mDateConstraint;
+    }
+
+    /**
+     * Sets a source of selectable and highlighted days that is queried one month at a time on
+     * a background thread. The dialog opens immediately, months that are still loading are
+     * shown disabled and are redrawn as soon as their data arrives. The days returned by the
+     * provider apply on top of the other restrictions.
+     * The selected date is not moved when its month turns out to be unavailable.
+     * Like the listeners, the provider is not saved with the instance state of the dialog. Set
+     * it again after a configuration change.
+     * @param provider The source of availability. null to remove it
+     */
+    @SuppressWarnings("unused")
+    public void setDateAvailabilityProvider(DateAvailabilityProvider provider) {
+        mAvailabilityProvider = provider;
+        resetAvailability();
+    }
+
+    /**
+     * Sets the executor the {@link DateAvailabilityProvider} is queried on. By default the
+     * provider is queried on a single background thread owned by the dialog.
+     * @param executor The executor to use. null to use the default one
+     */
+    @SuppressWarnings("unused")
+    public void setAvailabilityExecutor(Executor executor) {
+        mAvailabilityExecutor = executor;
+        resetAvailability();
+    }
+
+    /**
+     * Sets how many months before and after the month being displayed are loaded ahead of time
+     * from the {@link DateAvailabilityProvider}. The default is 2.
+     * @param months The number of months to load on each side of the displayed month
+     */
+    @SuppressWarnings("unused")
+    public void setAvailabilityPrefetchWindow(int months) {
+        if (months < 0) throw new IllegalArgumentException("The prefetch window can't be negative");
+        mAvailabilityPrefetchWindow = months;
+        resetAvailability();
+    }
+
+    private void resetAvailability() {
+        releaseAvailability();
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
+    }
+
+    private void releaseAvailability() {
+        if (mAvailabilityLoader != null) {
+            mAvailabilityLoader.release();
+            mAvailabilityLoader = null;
+        }
+    }
+
+    /**
+     * Drops the loaded availability, including the months which failed to load, so the
+     * {@link DateAvailabilityProvider} is queried again for every month.
+     * Call this when the data the provider depends on has changed.
+     */
+    @SuppressWarnings("unused")
+    public void invalidateAvailability() {
+        if (mAvailabilityLoader != null) mAvailabilityLoader.invalidate();
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
+    }
+
+    /**
+     * @return The availability of the given month, null if it hasn't been loaded or if no
+     * provider has been set. Doesn't queue the month for loading
+     */
+    private MonthAvailability getAvailability(int year, int month) {
+        return mAvailabilityLoader == null ? null : mAvailabilityLoader.get(year, month);
+    }
+
+    /**
+     * @return The loader of the availability, created on first use. Only call this when a
+     * provider has been set
+     */
+    private MonthAvailabilityLoader getAvailabilityLoader() {
+        if (mAvailabilityLoader == null) {
+            Executor executor = mAvailabilityExecutor;
+            if (executor == null) {
+                if (mDefaultAvailabilityExecutor == null) {
+                    mDefaultAvailabilityExecutor = Executors.newSingleThreadExecutor();
+                }
+                executor = mDefaultAvailabilityExecutor;
+            }
+            mAvailabilityLoader = new MonthAvailabilityLoader(mAvailabilityProvider, executor,
+                    AVAILABILITY_CACHE_MONTHS + 2 * mAvailabilityPrefetchWindow + 1,
+                    new MonthAvailabilityLoader.OnMonthLoadedListener() {
+                        @Override
+                        public void onMonthLoaded(int year, int month) {
+                            if (mDayPickerView != null) {
+                                mDayPickerView.onMonthAvailabilityChanged(year, month);
+                            }
+                        }
+                    });
+        }
+        return mAvailabilityLoader;
+    }
+
+    /**
+     * Sets a decorator adding colors, short labels or dots to the days of the picker.
+     * The decorator is called once for a month, when the month is shown, and the results are
+     * kept for the most recently shown months.
+     * Like the listeners, the decorator is not saved with the instance state of the dialog. Set
+     * it again after a configuration change.
+     * @param decorator The decorator to use. null to remove it
+     */
+    @SuppressWarnings("unused")
+    public void setDayDecorator(DayDecorator decorator) {
+        mDayDecorator = decorator;
+        invalidateDecorations();
+    }
+
+    /**
+     * Sets the colors a {@link DayDecorator} can refer to with
+     * {@link MonthDecorations#setColorIndex(int, int)}. Color index 1 is the first color.
+     * @param colors The colors of the palette
+     */
+    @SuppressWarnings("unused")
+    public void setDecorationColors(@ColorInt int... colors) {
+        mDecorationColors = colors.clone();
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
+    }
+
+    /**
+     * Drops the cached decorations, so the {@link DayDecorator} is called again for every month.
+     * Call this when the data the decorator depends on has changed.
+     */
+    @SuppressWarnings("unused")
+    public void invalidateDecorations() {
+        mDecorations.evictAll();
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
+    }
+
+    @Override
+    public MonthDecorations getDecorations(int year, int month) {
+        if (mDayDecorator == null) return null;
+        final int key = year * MonthAdapter.MONTHS_IN_YEAR + month;
+        MonthDecorations decorations = mDecorations.get(key);
+        if (decorations == null) {
+            decorations = new MonthDecorations();
+            mDayDecorator.decorateMonth(year, month, decorations);
+            mDecorations.put(key, decorations);
+        }
+        return decorations;
+    }
+
+    @Override
+    public int[] getDecorationColors() {
+        return mDecorationColors;
+    }
+
+    /**
+     * Enables caching the content of the months that doesn't change while scrolling or
+     * selecting a date (the title, the weekday labels and the day numbers) as bitmaps, so it is
+     * drawn once instead of every frame. Only the selected day is drawn on top of it.
+     * The cache is shared by all months, the least recently shown months are dropped first when
+     * the given budget is exceeded. Caching is disabled by default.
+     * @param maxBytes The memory budget of the cache in bytes, 0 to disable caching
+     */
+    @SuppressWarnings("unused")
+    public void setMonthRenderCacheSize(int maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("The cache size can't be negative");
+        if (mMonthRenderCache != null) mMonthRenderCache.evictAll();
+        mMonthRenderCache = maxBytes > 0 ? new MonthRenderCache(maxBytes) : null;
+
+        if (mDayPickerView != null) {
+            mDayPickerView.onChange();
+        }
+    }
+
+    @Override
+    public MonthRenderCache getMonthRenderCache() {
+        return mMonthRenderCache;
+    }
+
+    /**
+     * Sets how the month list settles after a fling. The target month is computed from the
+     * velocity when the fling starts, so the list scrolls straight to it. The default is
+     * {@link #SCROLL_SNAP}.
+     * @param mode One of {@link #SCROLL_SNAP}, {@link #SCROLL_FREE} or {@link #SCROLL_PAGE}
+     */
+    @SuppressWarnings("unused")
+    public void setScrollSnapMode(int mode) {
+        if (mode != SCROLL_SNAP && mode != SCROLL_FREE && mode != SCROLL_PAGE) {
+            throw new IllegalArgumentException("Unknown scroll snap mode " + mode);
+        }
+        mScrollSnapMode = mode;
+    }
+
+    @Override
+    public int getScrollSnapMode() {
+        return mScrollSnapMode;
+    }
+
+    /**
+     * Sets whether the month list is nudged to the nearest month boundary once a scroll comes
+     * to rest away from one, eg. after a fling was cut short. Enabled by default. Has no effect
+     * with {@link #SCROLL_FREE}.
+     * @param enabled false to leave the list where the scroll stopped
+     */
+    @SuppressWarnings("unused")
+    public void setSnapCorrectionEnabled(boolean enabled) {
+        mSnapCorrectionEnabled = enabled;
+    }
+
+    @Override
+    public boolean isSnapCorrectionEnabled() {
+        return mSnapCorrectionEnabled;
+    }
+
+    @Override
+    public boolean isMonthLoading(int year, int month) {
+        if (mAvailabilityProvider == null) return false;
+        return mAvailabilityLoader == null || mAvailabilityLoader.isLoading(year, month);
+    }
+
+    @Override
+    public void loadAvailability(int year, int month) {
+        if (mAvailabilityProvider == null) return;
+        getAvailabilityLoader().load(year, month);
+    }
+
+    @Override
+    public void prefetchAvailability(int year, int month) {
+        if (mAvailabilityProvider == null) return;
+        final MonthIndex index = getMonthIndex();
+        getAvailabilityLoader().prefetch(year, month, mAvailabilityPrefetchWindow,
+                index.keyAt(0), index.keyAt(index.getCount() - 1));
+    }
+
     /**
      * Set a title to be displayed instead of the weekday
      * @param title String - The title to be displayed
@@ -791,40 +1262,143 @@ public class DatePickerDialog extends DialogFragment implements
         return new MonthAdapter.CalendarDay(mCalendar);
     }
 
+    @Override
+    public int getSelectedEpochDay() {
+        return EpochDay.of(mCalendar);
+    }
+
     @Override
     public Calendar getStartDate() {
-        if (selectableDays != null) return selectableDays[0];
-        if (mMinDate != null) return mMinDate;
-        Calendar output = Calendar.getInstance();
-        output.set(Calendar.YEAR, mMinYear);
-        output.set(Calendar.DAY_OF_MONTH, 1);
-        output.set(Calendar.MONTH, Calendar.JANUARY);
-        return output;
+        updateBounds();
+        return mStartDate;
     }
 
     @Override
     public Calendar getEndDate() {
-        if (selectableDays != null) return selectableDays[selectableDays.length-1];
-        if (mMaxDate != null) return mMaxDate;
-        Calendar output = Calendar.getInstance();
-        output.set(Calendar.YEAR, mMaxYear);
-        output.set(Calendar.DAY_OF_MONTH, 31);
-        output.set(Calendar.MONTH, Calendar.DECEMBER);
-        return output;
+        updateBounds();
+        return mEndDate;
+    }
+
+    @Override
+    public int getStartEpochDay() {
+        updateBounds();
+        return mStartDay;
+    }
+
+    @Override
+    public int getEndEpochDay() {
+        updateBounds();
+        return mEndDay;
+    }
+
+    @Override
+    public MonthIndex getMonthIndex() {
+        updateBounds();
+        return mMonthIndex;
     }
 
     @Override
     public int getMinYear() {
-        if (selectableDays != null) return selectableDays[0].get(Calendar.YEAR);
-        // Ensure no years can be selected outside of the given minimum date
-        return mMinDate != null && mMinDate.get(Calendar.YEAR) > mMinYear ? mMinDate.get(Calendar.YEAR) : mMinYear;
+        updateBounds();
+        return mMinYearBound;
     }
 
     @Override
     public int getMaxYear() {
-        if (selectableDays != null) return selectableDays[selectableDays.length-1].get(Calendar.YEAR);
-        // Ensure no years can be selected outside of the given maximum date
-        return mMaxDate != null && mMaxDate.get(Calendar.YEAR) < mMaxYear ? mMaxDate.get(Calendar.YEAR) : mMaxYear;
+        updateBounds();
+        return mMaxYearBound;
+    }
+
+    /**
+     * Marks the selectable range as changed. It will be recomputed the next time it is needed.
+     */
+    private void invalidateBounds() {
+        mBoundsValid = false;
+    }
+
+    /**
+     * Computes the first and last selectable day and year once per configuration change,
+     * so the month list can query them while scrolling without touching a Calendar.
+     */
+    private void updateBounds() {
+        if (mBoundsValid) return;
+
+        mMinDateDay = mMinDate != null ? EpochDay.of(mMinDate) : Integer.MIN_VALUE;
+        mMaxDateDay = mMaxDate != null ? EpochDay.of(mMaxDate) : Integer.MAX_VALUE;
+
+        if (hasRanges()) {
+            // Combined once, so every lookup is a single binary search
+            DateRangeSet enabled = mEnabledRanges != null ? mEnabledRanges : DateRangeSet.all();
+            mSelectableRanges = mDisabledRanges != null ? enabled.minus(mDisabledRanges) : enabled;
+        } else {
+            mSelectableRanges = null;
+        }
+
+        int rangeStart = Integer.MAX_VALUE;
+        int rangeEnd = Integer.MIN_VALUE;
+        if (selectableDays == null && hasRanges()) {
+            rangeStart = getRangeStart();
+            rangeEnd = getRangeEnd();
+        }
+
+        if (selectableDays != null) {
+            mStartDate = selectableDays[0];
+            mEndDate = selectableDays[selectableDays.length-1];
+            mStartDay = EpochDay.of(mStartDate);
+            mEndDay = EpochDay.of(mEndDate);
+            mMinYearBound = EpochDay.year(mStartDay);
+            mMaxYearBound = EpochDay.year(mEndDay);
+        }
+        else if (rangeStart <= rangeEnd) {
+            mStartDay = rangeStart;
+            mEndDay = rangeEnd;
+            mStartDate = toCalendar(mStartDay);
+            mEndDate = toCalendar(mEndDay);
+            mMinYearBound = Math.max(EpochDay.year(mStartDay), mMinYear);
+            mMaxYearBound = Math.min(EpochDay.year(mEndDay), mMaxYear);
+        }
+        else {
+            // Also used when the ranges exclude every day between the minimum and maximum date
+            mStartDate = mMinDate != null ? mMinDate : toCalendar(EpochDay.of(mMinYear, Calendar.JANUARY, 1));
+            mEndDate = mMaxDate != null ? mMaxDate : toCalendar(EpochDay.of(mMaxYear, Calendar.DECEMBER, 31));
+            mStartDay = EpochDay.of(mStartDate);
+            mEndDay = EpochDay.of(mEndDate);
+            // Ensure no years can be selected outside of the given minimum and maximum date
+            mMinYearBound = Math.max(EpochDay.year(mStartDay), mMinYear);
+            mMaxYearBound = Math.min(EpochDay.year(mEndDay), mMaxYear);
+        }
+        mMonthIndex = new MonthIndex(mStartDay, mEndDay);
+        mBoundsValid = true;
+    }
+
+    private boolean hasRanges() {
+        return mEnabledRanges != null || mDisabledRanges != null;
+    }
+
+    /**
+     * @return The first day within the enabled ranges and outside of the disabled ranges,
+     * starting from the minimum date or year. Integer.MAX_VALUE if there is none
+     */
+    private int getRangeStart() {
+        final int start = mMinDate != null ? EpochDay.of(mMinDate) :
+                EpochDay.of(mMinYear, Calendar.JANUARY, 1);
+        return mSelectableRanges.ceiling(start);
+    }
+
+    /**
+     * @return The last day within the enabled ranges and outside of the disabled ranges,
+     * starting from the maximum date or year. Integer.MIN_VALUE if there is none
+     */
+    private int getRangeEnd() {
+        final int end = mMaxDate != null ? EpochDay.of(mMaxDate) :
+                EpochDay.of(mMaxYear, Calendar.DECEMBER, 31);
+        return mSelectableRanges.floor(end);
+    }
+
+    private static Calendar toCalendar(int epochDay) {
+        Calendar output = Calendar.getInstance();
+        EpochDay.setCalendar(epochDay, output);
+        return output;
     }
 
     /**
@@ -834,18 +1408,49 @@ public class DatePickerDialog extends DialogFragment implements
      */
     @Override
     public boolean isOutOfRange(int year, int month, int day) {
+        final int epochDay = EpochDay.of(year, month, day);
         if (selectableDays != null) {
-            return !isSelectable(year, month, day);
+            if (!mSelectableDaySet.contains(epochDay)) {
+                return true;
+            }
+        }
+        else {
+            updateBounds();
+            if (epochDay < mMinDateDay || epochDay > mMaxDateDay) return true;
         }
 
-        if (isBeforeMin(year, month, day)) {
-            return true;
+        if (hasRanges()) {
+            updateBounds();
+            if (!mSelectableRanges.contains(epochDay)) return true;
         }
-        else if (isAfterMax(year, month, day)) {
-            return true;
+
+        if (mAvailabilityProvider != null) {
+            MonthAvailability availability = getAvailability(year, month);
+            if (availability == null || !availability.isSelectable(day)) return true;
         }
 
-        return false;
+        return mDateConstraint != null &&
+                (getDateConstraintMask(year, month) & (1 << (day - 1))) == 0;
+    }
+
+    /**
+     * Evaluates the date constraint for every day of the given month, the first time the month
+     * is queried. The result is memoized, so memory scales with the number of months visited.
+     * @return A mask of the days allowed by the constraint: bit (day - 1) is set if the day
+     * can be selected
+     */
+    private int getDateConstraintMask(int year, int month) {
+        final int key = year * MonthAdapter.MONTHS_IN_YEAR + month;
+        int index = mDateConstraintMasks.indexOfKey(key);
+        if (index >= 0) return mDateConstraintMasks.valueAt(index);
+
+        final int daysInMonth = EpochDay.lengthOfMonth(year, month);
+        int mask = 0;
+        for (int day = 1; day <= daysInMonth; day++) {
+            if (mDateConstraint.isSelectable(year, month, day)) mask |= 1 << (day - 1);
+        }
+        mDateConstraintMasks.put(key, mask);
+        return mask;
     }
 
     @SuppressWarnings("unused")
@@ -857,41 +1462,9 @@ public class DatePickerDialog extends DialogFragment implements
         );
     }
 
-    private boolean isSelectable(int year, int month, int day) {
-        for (Calendar c : selectableDays) {
-            if(year < c.get(Calendar.YEAR)) break;
-            if(year > c.get(Calendar.YEAR)) continue;
-            if(month < c.get(Calendar.MONTH)) break;
-            if(month > c.get(Calendar.MONTH)) continue;
-            if(day < c.get(Calendar.DAY_OF_MONTH)) break;
-            if(day > c.get(Calendar.DAY_OF_MONTH)) continue;
-            return true;
-        }
-        return false;
-    }
-
     private boolean isBeforeMin(int year, int month, int day) {
-        if (mMinDate == null) {
-            return false;
-        }
-
-        if (year < mMinDate.get(Calendar.YEAR)) {
-            return true;
-        } else if (year > mMinDate.get(Calendar.YEAR)) {
-            return false;
-        }
-
-        if (month < mMinDate.get(Calendar.MONTH)) {
-            return true;
-        } else if (month > mMinDate.get(Calendar.MONTH)) {
-            return false;
-        }
-
-        if (day < mMinDate.get(Calendar.DAY_OF_MONTH)) {
-            return true;
-        } else {
-            return false;
-        }
+        updateBounds();
+        return EpochDay.of(year, month, day) < mMinDateDay;
     }
 
     private boolean isBeforeMin(Calendar calendar) {
@@ -903,27 +1476,8 @@ public class DatePickerDialog extends DialogFragment implements
     }
 
     private boolean isAfterMax(int year, int month, int day) {
-        if (mMaxDate == null) {
-            return false;
-        }
-
-        if (year > mMaxDate.get(Calendar.YEAR)) {
-            return true;
-        } else if (year < mMaxDate.get(Calendar.YEAR)) {
-            return false;
-        }
-
-        if (month > mMaxDate.get(Calendar.MONTH)) {
-            return true;
-        } else if (month < mMaxDate.get(Calendar.MONTH)) {
-            return false;
-        }
-
-        if (day > mMaxDate.get(Calendar.DAY_OF_MONTH)) {
-            return true;
-        } else {
-            return false;
-        }
+        updateBounds();
+        return EpochDay.of(year, month, day) > mMaxDateDay;
     }
 
     private boolean isAfterMax(Calendar calendar) {
@@ -936,29 +1490,115 @@ public class DatePickerDialog extends DialogFragment implements
 
     private void setToNearestDate(Calendar calendar) {
         if(selectableDays != null) {
-            long distance = Long.MAX_VALUE;
-            Calendar currentBest = calendar;
-            for (Calendar c : selectableDays) {
-                long newDistance = Math.abs(calendar.getTimeInMillis() - c.getTimeInMillis());
-                if(newDistance < distance) {
-                    distance = newDistance;
-                    currentBest = c;
-                }
-                else break;
-            }
-            calendar.setTimeInMillis(currentBest.getTimeInMillis());
+            final int nearest = mSelectableDaySet.nearest(EpochDay.of(calendar));
+            if (nearest != Integer.MIN_VALUE) EpochDay.setCalendar(nearest, calendar);
+            setToNearestAllowedDate(calendar);
             return;
         }
 
+        // Only move the day, the time of the selection is kept
         if(isBeforeMin(calendar)) {
-            calendar.setTimeInMillis(mMinDate.getTimeInMillis());
-            return;
+            EpochDay.setCalendar(mMinDateDay, calendar);
+        }
+        else if(isAfterMax(calendar)) {
+            EpochDay.setCalendar(mMaxDateDay, calendar);
         }
 
-        if(isAfterMax(calendar)) {
-            calendar.setTimeInMillis(mMaxDate.getTimeInMillis());
-            return;
+        if(hasRanges()) {
+            final int day = EpochDay.of(calendar);
+            final int start = getStartEpochDay();
+            final int end = getEndEpochDay();
+            // Only consider the days of the ranges between the start and the end
+            int before = mSelectableRanges.floor(Math.min(day, end));
+            int after = mSelectableRanges.ceiling(Math.max(day, start));
+            if (before < start) before = Integer.MIN_VALUE;
+            if (after > end) after = Integer.MAX_VALUE;
+            int nearest = EpochDaySet.closest(day, before, after);
+            // The ranges exclude every day, so only keep the date between the start and the end
+            if (nearest == Integer.MIN_VALUE) nearest = Math.max(start, Math.min(day, end));
+            EpochDay.setCalendar(nearest, calendar);
+        }
+        setToNearestAllowedDate(calendar);
+    }
+
+    /**
+     * Moves the calendar to the nearest day the date constraint allows, among the days the
+     * other options allow, preferring the earlier day on a tie. If there is no such day within
+     * MAX_CONSTRAINT_SEARCH_DAYS of it, the calendar is left alone and so keeps a day the
+     * constraint doesn't allow.
+     */
+    private void setToNearestAllowedDate(Calendar calendar) {
+        if (mDateConstraint == null) return;
+        final int day = EpochDay.of(calendar);
+        final int start = Math.max(getStartEpochDay(), day - MAX_CONSTRAINT_SEARCH_DAYS);
+        final int end = Math.min(getEndEpochDay(), day + MAX_CONSTRAINT_SEARCH_DAYS);
+        final int before = previousAllowedDay(Math.min(day, end), start);
+        final int after = nextAllowedDay(Math.max(day, start), end);
+        final int nearest = EpochDaySet.closest(day, before, after);
+        if (nearest != Integer.MIN_VALUE) EpochDay.setCalendar(nearest, calendar);
+    }
+
+    /**
+     * Walks the constraint masks a month at a time, so months the constraint excludes entirely
+     * are skipped in one step. Only the days the constraint allows are checked against the
+     * other options.
+     * @return The first allowed day from the given day up to the last day, Integer.MAX_VALUE
+     * if there is none
+     */
+    private int nextAllowedDay(int epochDay, int last) {
+        while (epochDay <= last) {
+            final int year = EpochDay.year(epochDay);
+            final int month = EpochDay.month(epochDay);
+            final int dayOfMonth = EpochDay.dayOfMonth(epochDay);
+            final int firstOfMonth = epochDay - dayOfMonth + 1;
+            // Only the days from the given one on
+            int mask = getDateConstraintMask(year, month) & -(1 << (dayOfMonth - 1));
+            while (mask != 0) {
+                final int candidate = firstOfMonth + Integer.numberOfTrailingZeros(mask);
+                if (candidate > last) return Integer.MAX_VALUE;
+                if (isAllowedDay(candidate)) return candidate;
+                mask &= mask - 1;
+            }
+            epochDay = firstOfMonth + EpochDay.lengthOfMonth(year, month);
         }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * The mirror image of {@link #nextAllowedDay(int, int)}
+     * @return The last allowed day from the given day down to the first day, Integer.MIN_VALUE
+     * if there is none
+     */
+    private int previousAllowedDay(int epochDay, int first) {
+        while (epochDay >= first) {
+            final int dayOfMonth = EpochDay.dayOfMonth(epochDay);
+            final int firstOfMonth = epochDay - dayOfMonth + 1;
+            // Only the days up to the given one
+            int mask = getDateConstraintMask(EpochDay.year(epochDay), EpochDay.month(epochDay))
+                    & ((1 << dayOfMonth) - 1);
+            while (mask != 0) {
+                final int highest = Integer.highestOneBit(mask);
+                final int candidate = firstOfMonth + Integer.numberOfTrailingZeros(highest);
+                if (candidate < first) return Integer.MIN_VALUE;
+                if (isAllowedDay(candidate)) return candidate;
+                mask &= ~highest;
+            }
+            epochDay = firstOfMonth - 1;
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return true if the given day can be selected, not taking the
+     * {@link DateAvailabilityProvider} into account as it may still be loading
+     */
+    private boolean isAllowedDay(int epochDay) {
+        if (epochDay < getStartEpochDay() || epochDay > getEndEpochDay()) return false;
+        if (selectableDays != null && !mSelectableDaySet.contains(epochDay)) return false;
+        if (mSelectableRanges != null && !mSelectableRanges.contains(epochDay)) return false;
+        final int day = EpochDay.dayOfMonth(epochDay);
+        return (getDateConstraintMask(EpochDay.year(epochDay), EpochDay.month(epochDay))
+                & (1 << (day - 1))) != 0;
     }
 
     @Override
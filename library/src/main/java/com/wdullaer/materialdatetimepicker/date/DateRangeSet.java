@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.wdullaer.materialdatetimepicker.date;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * An immutable set of date ranges, stored as sorted and merged intervals of {@link EpochDay}s.
+ * All lookups are a binary search over the intervals.
+ */
+class DateRangeSet {
+    // Inclusive bounds of the intervals, sorted, non overlapping and non adjacent
+    private final int[] mStarts;
+    private final int[] mEnds;
+
+    /**
+     * @param starts The first day of each range
+     * @param ends The last day of each range, in the same order as starts
+     */
+    public DateRangeSet(Calendar[] starts, Calendar[] ends) {
+        if (starts.length != ends.length) {
+            throw new IllegalArgumentException("Every range must have a start and an end");
+        }
+        // Pack each range into a long, so sorting orders them by start day
+        long[] ranges = new long[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            int start = EpochDay.of(starts[i]);
+            int end = EpochDay.of(ends[i]);
+            if (end < start) {
+                throw new IllegalArgumentException("Range end must be after or equal to range start");
+            }
+            ranges[i] = ((long) start << 32) | (end & 0xffffffffL);
+        }
+        Arrays.sort(ranges);
+
+        int[] mergedStarts = new int[ranges.length];
+        int[] mergedEnds = new int[ranges.length];
+        int count = 0;
+        for (long range : ranges) {
+            int start = (int) (range >> 32);
+            int end = (int) range;
+            if (count > 0 && (long) start <= (long) mergedEnds[count - 1] + 1) {
+                mergedEnds[count - 1] = Math.max(mergedEnds[count - 1], end);
+            } else {
+                mergedStarts[count] = start;
+                mergedEnds[count] = end;
+                count++;
+            }
+        }
+        mStarts = Arrays.copyOf(mergedStarts, count);
+        mEnds = Arrays.copyOf(mergedEnds, count);
+    }
+
+    /**
+     * @param ranges The bounds of the intervals, as returned by {@link #toArray()}
+     */
+    public DateRangeSet(int[] ranges) {
+        mStarts = new int[ranges.length / 2];
+        mEnds = new int[ranges.length / 2];
+        for (int i = 0; i < mStarts.length; i++) {
+            mStarts[i] = ranges[2 * i];
+            mEnds[i] = ranges[2 * i + 1];
+        }
+    }
+
+    private DateRangeSet(int[] starts, int[] ends) {
+        mStarts = starts;
+        mEnds = ends;
+    }
+
+    /**
+     * @return A set containing every day
+     */
+    public static DateRangeSet all() {
+        return new DateRangeSet(new int[] {Integer.MIN_VALUE}, new int[] {Integer.MAX_VALUE});
+    }
+
+    /**
+     * Merges both sets of intervals in a single pass
+     * @param other The days to remove
+     * @return The days of this set which are not in the other set
+     */
+    public DateRangeSet minus(DateRangeSet other) {
+        // Every removed interval splits at most one interval in two
+        int[] starts = new int[mStarts.length + other.mStarts.length];
+        int[] ends = new int[starts.length];
+        int count = 0;
+        int first = 0;
+        for (int i = 0; i < mStarts.length; i++) {
+            // A long, as the day after the end of the last removed interval may overflow
+            long start = mStarts[i];
+            final int end = mEnds[i];
+            // Skip the removed intervals ending before this one
+            while (first < other.mStarts.length && other.mEnds[first] < start) first++;
+            for (int j = first; j < other.mStarts.length && other.mStarts[j] <= end; j++) {
+                if (other.mStarts[j] > start) {
+                    starts[count] = (int) start;
+                    ends[count] = other.mStarts[j] - 1;
+                    count++;
+                }
+                start = (long) other.mEnds[j] + 1;
+                if (start > end) break;
+            }
+            if (start <= end) {
+                starts[count] = (int) start;
+                ends[count] = end;
+                count++;
+            }
+        }
+        return new DateRangeSet(Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
+    /**
+     * @return The bounds of the merged intervals, as start and end epoch day pairs
+     */
+    public int[] toArray() {
+        int[] ranges = new int[mStarts.length * 2];
+        for (int i = 0; i < mStarts.length; i++) {
+            ranges[2 * i] = mStarts[i];
+            ranges[2 * i + 1] = mEnds[i];
+        }
+        return ranges;
+    }
+
+    /**
+     * @return The index of the last interval starting on or before the given day, -1 if none
+     */
+    private int indexOf(int epochDay) {
+        int index = Arrays.binarySearch(mStarts, epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * @param epochDay The day to look up
+     * @return true if the day falls within one of the ranges
+     */
+    public boolean contains(int epochDay) {
+        int index = indexOf(epochDay);
+        return index >= 0 && mEnds[index] >= epochDay;
+    }
+
+    /**
+     * @return The first day on or after the given day within a range,
+     * Integer.MAX_VALUE if there is none
+     */
+    public int ceiling(int epochDay) {
+        int index = indexOf(epochDay);
+        if (index >= 0 && mEnds[index] >= epochDay) return epochDay;
+        return index + 1 < mStarts.length ? mStarts[index + 1] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return The last day on or before the given day within a range,
+     * Integer.MIN_VALUE if there is none
+     */
+    public int floor(int epochDay) {
+        int index = indexOf(epochDay);
+        if (index < 0) return Integer.MIN_VALUE;
+        return Math.min(epochDay, mEnds[index]);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wdullaer.materialdatetimepicker.date;
+
+/**
+ * Adds extra information, such as a price or the occupancy, to the days of the date picker.
+ * The decorator is called once for a month, when the month is first shown. The result is
+ * cached, so the decorator never runs while the month is being drawn.
+ */
+public interface DayDecorator {
+
+    /**
+     * Called on the main thread. Keep this fast, or precompute the data it reads.
+     * @param year The year
+     * @param month The month (0-11) for compatibility with {@link java.util.Calendar}
+     * @param decorations The decorations of the month, to be filled in
+     */
+    void decorateMonth(int year, int month, MonthDecorations decorations);
+}
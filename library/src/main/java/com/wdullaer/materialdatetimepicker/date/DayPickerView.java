@@ -21,9 +21,13 @@ import android.content.Context;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.support.annotation.NonNull;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.view.MotionEvent;
+import android.view.VelocityTracker;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.accessibility.AccessibilityEvent;
@@ -41,6 +45,11 @@ import java.util.Locale;
 
 /**
  * This displays a list of months in a calendar format with selectable days.
+ * <p>
+ * The list is a plain ListView, as the library doesn't depend on RecyclerView. MonthViews are
+ * only reused through the ListView recycler, no views are created ahead of time. What is done
+ * ahead of time is loading the data of the next months in the scroll direction, while the main
+ * thread is idle, so binding them only hits warm caches.
  */
 public abstract class DayPickerView extends ListView implements OnScrollListener,
     OnDateChangedListener {
@@ -67,6 +76,12 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
     // These affect the scroll speed and feel
     protected float mFriction = 1.0f;
 
+    // The constants of the fling curve of OverScroller, used to predict where a fling ends
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private static final float INFLEXION = 0.35f;
+    private static final float GRAVITY_EARTH = 9.80665f;
+    private static final float INCHES_PER_METER = 39.37f;
+
     protected Context mContext;
     protected Handler mHandler;
 
@@ -91,6 +106,36 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
 
     private DatePickerController mController;
     private boolean mPerformingScroll;
+    // The position the availability was last prefetched around
+    private int mPrefetchPosition = -1;
+
+    // The number of months past the visible ones bound ahead of time while the list is idle
+    private static final int IDLE_PREFETCH_MONTHS = 2;
+    // The edge of the visible positions the idle prefetch starts from, and how far it got
+    private int mIdlePrefetchFrom;
+    private int mIdlePrefetchDirection = 1;
+    private int mIdlePrefetchStep;
+    private boolean mIdlePrefetchQueued;
+
+    // Tracks the touch gestures, so a fling can be redirected to a month boundary
+    private VelocityTracker mVelocityTracker;
+    private int mMinimumFlingVelocity;
+    private int mMaximumFlingVelocity;
+    private float mFlingFriction;
+    private float mPhysicalCoeff;
+    // The month in view when the current gesture started
+    private int mTouchDownPosition;
+
+    // Prepares one month each time the main thread runs out of messages. This also runs in
+    // the gaps between the frames of a fling, and may run the DayDecorator and DateConstraint,
+    // which is work getView would otherwise do in the middle of a frame
+    private final MessageQueue.IdleHandler mIdlePrefetcher = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            mIdlePrefetchQueued = prefetchNext();
+            return mIdlePrefetchQueued;
+        }
+    };
 
     public DayPickerView(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -117,9 +162,17 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
 
         mContext = context;
         setUpListView();
+
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        mMinimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
+        mMaximumFlingVelocity = configuration.getScaledMaximumFlingVelocity();
+        final float ppi = context.getResources().getDisplayMetrics().density * 160.0f;
+        mPhysicalCoeff = GRAVITY_EARTH * INCHES_PER_METER * ppi * 0.84f;
     }
 
     public void onChange() {
+        mPrefetchPosition = -1;
+        mIdlePrefetchStep = IDLE_PREFETCH_MONTHS;
         refreshAdapter();
     }
 
@@ -157,7 +210,8 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
         setOnScrollListener(this);
         setFadingEdgeLength(0);
         // Make the scrolling behavior nicer
-        setFriction(ViewConfiguration.getScrollFriction() * mFriction);
+        mFlingFriction = ViewConfiguration.getScrollFriction() * mFriction;
+        setFriction(mFlingFriction);
     }
 
     /**
@@ -183,9 +237,7 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
         }
 
         mTempDay.set(day);
-        int minMonth = mController.getStartDate().get(Calendar.MONTH);
-        final int position = (day.year - mController.getMinYear())
-                * MonthAdapter.MONTHS_IN_YEAR + day.month - minMonth;
+        final int position = mController.getMonthIndex().positionOf(day.year, day.month);
 
         View child;
         int i = 0;
@@ -263,6 +315,187 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
         long currScroll = view.getFirstVisiblePosition() * child.getHeight() - child.getBottom();
         mPreviousScrollPosition = currScroll;
         mPreviousScrollState = mCurrentScrollState;
+
+        if (firstVisibleItem != mPrefetchPosition) {
+            final boolean scrollingDown = firstVisibleItem > mPrefetchPosition;
+            mPrefetchPosition = firstVisibleItem;
+            final MonthIndex index = mController.getMonthIndex();
+            mController.prefetchAvailability(
+                    index.yearAt(firstVisibleItem), index.monthAt(firstVisibleItem));
+
+            if (scrollingDown) {
+                mIdlePrefetchDirection = 1;
+                mIdlePrefetchFrom = firstVisibleItem + visibleItemCount - 1;
+            } else {
+                mIdlePrefetchDirection = -1;
+                mIdlePrefetchFrom = firstVisibleItem;
+            }
+            mIdlePrefetchStep = 0;
+            if (!mIdlePrefetchQueued) {
+                mIdlePrefetchQueued = true;
+                Looper.myQueue().addIdleHandler(mIdlePrefetcher);
+            }
+        }
+    }
+
+    /**
+     * Loads the data of the next month ahead of the scroll direction.
+     * @return true if there is more work left
+     */
+    private boolean prefetchNext() {
+        if (mAdapter == null) return false;
+        while (mIdlePrefetchStep < IDLE_PREFETCH_MONTHS) {
+            mIdlePrefetchStep++;
+            int position = mIdlePrefetchFrom + mIdlePrefetchDirection * mIdlePrefetchStep;
+            if (mAdapter.prefetchMonth(position)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mIdlePrefetchQueued) {
+            Looper.myQueue().removeIdleHandler(mIdlePrefetcher);
+            mIdlePrefetchQueued = false;
+        }
+    }
+
+    /**
+     * Tracks the whole gesture, including the events consumed by the MonthViews before the
+     * list intercepts the scroll, so the start of the gesture and its velocity are known.
+     */
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (mController == null || mController.getScrollSnapMode() == DatePickerDialog.SCROLL_FREE) {
+            recycleVelocityTracker();
+            return super.dispatchTouchEvent(ev);
+        }
+        if (mVelocityTracker == null) {
+            mVelocityTracker = VelocityTracker.obtain();
+        }
+        if (ev.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            mVelocityTracker.clear();
+            mTouchDownPosition = getMostVisiblePosition();
+        }
+        mVelocityTracker.addMovement(ev);
+
+        final boolean handled = super.dispatchTouchEvent(ev);
+        if (ev.getActionMasked() == MotionEvent.ACTION_UP
+                || ev.getActionMasked() == MotionEvent.ACTION_CANCEL) {
+            recycleVelocityTracker();
+        }
+        return handled;
+    }
+
+    /**
+     * Replaces the fling of the list by a single scroll to the month picked by the snap mode
+     * of the controller, so the list doesn't need a correction once the fling ends.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent ev) {
+        if (ev.getActionMasked() != MotionEvent.ACTION_UP || mVelocityTracker == null) {
+            return super.onTouchEvent(ev);
+        }
+        mVelocityTracker.computeCurrentVelocity(1000, mMaximumFlingVelocity);
+        final float velocity = mVelocityTracker.getYVelocity();
+        if (Math.abs(velocity) < mMinimumFlingVelocity) {
+            return super.onTouchEvent(ev);
+        }
+        final int target = getSnapTarget(velocity);
+        if (target < 0) {
+            return super.onTouchEvent(ev);
+        }
+
+        // Let the list end the drag without starting a fling of its own, before scrolling
+        ev.setAction(MotionEvent.ACTION_CANCEL);
+        super.onTouchEvent(ev);
+        ev.setAction(MotionEvent.ACTION_UP);
+        smoothScrollToPositionFromTop(target, LIST_TOP_OFFSET, getSnapDuration(velocity));
+        return true;
+    }
+
+    private void recycleVelocityTracker() {
+        if (mVelocityTracker != null) {
+            mVelocityTracker.recycle();
+            mVelocityTracker = null;
+        }
+    }
+
+    /**
+     * @param velocity The vertical velocity of the fling in pixels per second, positive when
+     *                 moving towards earlier months
+     * @return The position of the month the given fling should end in, -1 if the list can't
+     * snap and should fling as usual
+     */
+    private int getSnapTarget(float velocity) {
+        View first = getChildAt(0);
+        if (first == null || first.getHeight() == 0 || getCount() == 0) return -1;
+
+        final int direction = velocity < 0 ? 1 : -1;
+        int target;
+        if (mController.getScrollSnapMode() == DatePickerDialog.SCROLL_PAGE) {
+            target = mTouchDownPosition + direction;
+        } else {
+            // Months have 4 to 6 weeks, so the average height of the visible ones is close
+            // enough to find the month the fling ends in
+            int height = 0;
+            for (int i = 0; i < getChildCount(); i++) {
+                height += getChildAt(i).getHeight();
+            }
+            final float monthHeight = (float) height / getChildCount();
+            final float end = -first.getTop() + direction * getSplineFlingDistance(velocity);
+            target = getFirstVisiblePosition() + Math.round(end / monthHeight);
+        }
+        return Math.max(0, Math.min(target, getCount() - 1));
+    }
+
+    /**
+     * @return The duration in milliseconds of the scroll to the month picked by getSnapTarget
+     */
+    private int getSnapDuration(float velocity) {
+        if (mController.getScrollSnapMode() == DatePickerDialog.SCROLL_PAGE) {
+            return GOTO_SCROLL_DURATION;
+        }
+        return Math.max(getSplineFlingDuration(velocity), GOTO_SCROLL_DURATION);
+    }
+
+    private double getSplineDeceleration(float velocity) {
+        return Math.log(INFLEXION * Math.abs(velocity) / (mFlingFriction * mPhysicalCoeff));
+    }
+
+    /**
+     * @return The distance in pixels a fling of the list would travel, as computed by OverScroller
+     */
+    private float getSplineFlingDistance(float velocity) {
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+        return (float) (mFlingFriction * mPhysicalCoeff * Math.exp(DECELERATION_RATE / decelMinusOne * l));
+    }
+
+    /**
+     * @return The duration in milliseconds of a fling of the list, as computed by OverScroller
+     */
+    private int getSplineFlingDuration(float velocity) {
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+        return (int) (1000.0 * Math.exp(l / decelMinusOne));
+    }
+
+    /**
+     * Redraws the given month if it is on screen, after its availability has been loaded.
+     * The other months are left untouched.
+     */
+    public void onMonthAvailabilityChanged(int year, int month) {
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child instanceof MonthView) {
+                MonthView monthView = (MonthView) child;
+                if (monthView.getYear() == year && monthView.getMonth() == month) {
+                    monthView.onAvailabilityChanged();
+                }
+            }
+        }
     }
 
     /**
@@ -283,6 +516,11 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
 
     protected ScrollStateRunnable mScrollStateChangedRunnable = new ScrollStateRunnable();
 
+    private boolean isSnapCorrectionEnabled() {
+        return mController == null || (mController.isSnapCorrectionEnabled()
+                && mController.getScrollSnapMode() != DatePickerDialog.SCROLL_FREE);
+    }
+
     protected class ScrollStateRunnable implements Runnable {
         private int mNewState;
 
@@ -309,7 +547,8 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
             // Fix the position after a scroll or a fling ends
             if (mNewState == OnScrollListener.SCROLL_STATE_IDLE
                     && mPreviousScrollState != OnScrollListener.SCROLL_STATE_IDLE
-                    && mPreviousScrollState != OnScrollListener.SCROLL_STATE_TOUCH_SCROLL) {
+                    && mPreviousScrollState != OnScrollListener.SCROLL_STATE_TOUCH_SCROLL
+                    && isSnapCorrectionEnabled()) {
                 mPreviousScrollState = mNewState;
                 int i = 0;
                 View child = getChildAt(i);
@@ -368,7 +607,46 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
 
     @Override
     public void onDateChanged() {
-        goTo(mController.getSelectedDay(), false, true, true);
+        mTempDay.setEpochDay(mController.getSelectedEpochDay());
+        if (moveSelectionInPlace(mTempDay)) return;
+        goTo(mTempDay, false, true, true);
+    }
+
+    /**
+     * Moves the selection without rebinding or scrolling the list, when the given day is in
+     * the first month that is completely in view. Only the old and the new selected day are
+     * redrawn.
+     *
+     * @param day The new selected day
+     * @return false if the list has to scroll to the given day
+     */
+    private boolean moveSelectionInPlace(MonthAdapter.CalendarDay day) {
+        if (mAdapter == null) return false;
+
+        // Find the same child goTo() would consider to be in view
+        View target;
+        int i = 0;
+        do {
+            target = getChildAt(i++);
+        } while (target != null && target.getTop() < 0);
+        if (!(target instanceof MonthView)) return false;
+        MonthView targetMonth = (MonthView) target;
+        if (targetMonth.getYear() != day.year || targetMonth.getMonth() != day.month) return false;
+
+        for (int j = 0; j < getChildCount(); j++) {
+            View child = getChildAt(j);
+            if (child instanceof MonthView && child != target) {
+                MonthView monthView = (MonthView) child;
+                if (monthView.getYear() == mSelectedDay.year && monthView.getMonth() == mSelectedDay.month) {
+                    monthView.updateSelectedDay(-1);
+                }
+            }
+        }
+        targetMonth.updateSelectedDay(day.day);
+
+        mSelectedDay.set(day);
+        mAdapter.setSelectedDayInPlace(mSelectedDay);
+        return true;
     }
 
     /**
@@ -480,10 +758,9 @@ public abstract class DayPickerView extends ListView implements OnScrollListener
 
         // Figure out what month is showing.
         int firstVisiblePosition = getFirstVisiblePosition();
-        int minMonth = mController.getStartDate().get(Calendar.MONTH);
-        int month = (firstVisiblePosition + minMonth) % MonthAdapter.MONTHS_IN_YEAR;
-        int year = (firstVisiblePosition + minMonth) / MonthAdapter.MONTHS_IN_YEAR + mController.getMinYear();
-        MonthAdapter.CalendarDay day = new MonthAdapter.CalendarDay(year, month, 1);
+        final MonthIndex index = mController.getMonthIndex();
+        MonthAdapter.CalendarDay day = new MonthAdapter.CalendarDay(
+                index.yearAt(firstVisiblePosition), index.monthAt(firstVisiblePosition), 1);
 
         // Scroll either forward or backward one month.
         if (action == AccessibilityNodeInfo.ACTION_SCROLL_FORWARD) {
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.wdullaer.materialdatetimepicker.date;
+
+import java.util.Calendar;
+
+/**
+ * Helpers to represent a date as the number of days since 1 January 1970 (the epoch day).
+ * The conversion only looks at the year, month and day fields, so it does not depend on
+ * the time of day or on the timezone of the source.
+ * An epoch day is a plain int, so it can be stored, compared and passed around on the drawing
+ * and binding paths without allocating.
+ */
+public final class EpochDay {
+
+    private EpochDay() {
+    }
+
+    /**
+     * @param year The year
+     * @param month The month (0-11) for compatibility with {@link Calendar}
+     * @param day The day of the month (1-31)
+     * @return The epoch day of the given date in the proleptic Gregorian calendar
+     */
+    public static int of(int year, int month, int day) {
+        // Count from March, so the leap day is the last day of the (shifted) year
+        final int y = month < Calendar.MARCH ? year - 1 : year;
+        final int era = (y >= 0 ? y : y - 399) / 400;
+        final int yearOfEra = y - era * 400;
+        final int shiftedMonth = month < Calendar.MARCH ? month + 10 : month - 2;
+        final int dayOfYear = (153 * shiftedMonth + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * @param epochDay The day to look up
+     * @return The year of the given day
+     */
+    public static int year(int epochDay) {
+        final int dayOfEra = dayOfEra(epochDay);
+        final int yearOfEra = yearOfEra(dayOfEra);
+        final int shiftedMonth = shiftedMonth(dayOfEra, yearOfEra);
+        return era(epochDay) * 400 + yearOfEra + (shiftedMonth >= 10 ? 1 : 0);
+    }
+
+    /**
+     * @param epochDay The day to look up
+     * @return The month (0-11) of the given day
+     */
+    public static int month(int epochDay) {
+        final int dayOfEra = dayOfEra(epochDay);
+        final int shiftedMonth = shiftedMonth(dayOfEra, yearOfEra(dayOfEra));
+        return shiftedMonth < 10 ? shiftedMonth + 2 : shiftedMonth - 10;
+    }
+
+    /**
+     * @param epochDay The day to look up
+     * @return The day of the month (1-31) of the given day
+     */
+    public static int dayOfMonth(int epochDay) {
+        final int dayOfEra = dayOfEra(epochDay);
+        final int yearOfEra = yearOfEra(dayOfEra);
+        final int dayOfYear = dayOfYear(dayOfEra, yearOfEra);
+        return dayOfYear - (153 * shiftedMonth(dayOfEra, yearOfEra) + 2) / 5 + 1;
+    }
+
+    // The inverse of of(int, int, int), working in 400 year eras starting on 1 March 0000
+    private static int era(int epochDay) {
+        final int z = epochDay + 719468;
+        return (z >= 0 ? z : z - 146096) / 146097;
+    }
+
+    private static int dayOfEra(int epochDay) {
+        return epochDay + 719468 - era(epochDay) * 146097;
+    }
+
+    private static int yearOfEra(int dayOfEra) {
+        return (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+    }
+
+    private static int dayOfYear(int dayOfEra, int yearOfEra) {
+        return dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+    }
+
+    private static int shiftedMonth(int dayOfEra, int yearOfEra) {
+        return (5 * dayOfYear(dayOfEra, yearOfEra) + 2) / 153;
+    }
+
+    /**
+     * @param year The year
+     * @param month The month (0-11)
+     * @return The number of days in the given month
+     */
+    public static int lengthOfMonth(int year, int month) {
+        // Month 12 maps onto January of the next year
+        return of(year, month + 1, 1) - of(year, month, 1);
+    }
+
+    /**
+     * @param epochDay The day to look up
+     * @return The day of the week, {@link Calendar#SUNDAY} through {@link Calendar#SATURDAY}
+     */
+    public static int dayOfWeek(int epochDay) {
+        // The epoch was a Thursday
+        int offset = (epochDay + 4) % 7;
+        if (offset < 0) offset += 7;
+        return Calendar.SUNDAY + offset;
+    }
+
+    /**
+     * Sets the year, month and day of the calendar to the given day. Other fields are untouched.
+     * @param epochDay The day to set
+     * @param calendar The calendar to update
+     */
+    public static void setCalendar(int epochDay, Calendar calendar) {
+        calendar.set(year(epochDay), month(epochDay), dayOfMonth(epochDay));
+    }
+
+    /**
+     * @param calendar The date to convert
+     * @return The epoch day of the year, month and day set in the calendar
+     */
+    public static int of(Calendar calendar) {
+        return of(calendar.get(Calendar.YEAR),
+                calendar.get(Calendar.MONTH),
+                calendar.get(Calendar.DAY_OF_MONTH));
+    }
+}
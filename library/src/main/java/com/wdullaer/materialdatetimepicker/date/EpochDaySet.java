@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.wdullaer.materialdatetimepicker.date;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * An immutable set of days, indexed as a bitset keyed by {@link EpochDay}.
+ * Membership tests are a single bit lookup, independent of the number of days in the set.
+ */
+class EpochDaySet {
+    private static final int BITS_PER_WORD = 64;
+
+    // Sorted, distinct epoch days
+    private final int[] mDays;
+    // Bit i is set if mFirstDay + i is part of the set
+    private final long[] mBits;
+    private final int mFirstDay;
+
+    public EpochDaySet(Calendar[] days) {
+        this(toEpochDays(days));
+    }
+
+    /**
+     * @param epochDays The days in the set, in any order. The array will be modified
+     */
+    public EpochDaySet(int[] epochDays) {
+        Arrays.sort(epochDays);
+
+        // Drop duplicates so the sorted array can be used for exact lookups
+        int count = 0;
+        for (int i = 0; i < epochDays.length; i++) {
+            if (count == 0 || epochDays[i] != epochDays[count - 1]) {
+                epochDays[count++] = epochDays[i];
+            }
+        }
+        mDays = count == epochDays.length ? epochDays : Arrays.copyOf(epochDays, count);
+
+        if (count == 0) {
+            mFirstDay = 0;
+            mBits = new long[0];
+            return;
+        }
+        mFirstDay = mDays[0];
+        mBits = new long[(mDays[count - 1] - mFirstDay) / BITS_PER_WORD + 1];
+        for (int day : mDays) {
+            int bit = day - mFirstDay;
+            mBits[bit / BITS_PER_WORD] |= 1L << (bit % BITS_PER_WORD);
+        }
+    }
+
+    private static int[] toEpochDays(Calendar[] days) {
+        int[] epochDays = new int[days.length];
+        for (int i = 0; i < days.length; i++) {
+            epochDays[i] = EpochDay.of(days[i]);
+        }
+        return epochDays;
+    }
+
+    /**
+     * @param epochDay The day to look up
+     * @return true if the given day is part of this set
+     */
+    public boolean contains(int epochDay) {
+        int bit = epochDay - mFirstDay;
+        if (bit < 0 || bit >= mBits.length * BITS_PER_WORD) return false;
+        return (mBits[bit / BITS_PER_WORD] & (1L << (bit % BITS_PER_WORD))) != 0;
+    }
+
+    /**
+     * @param year The year
+     * @param month The month (0-11)
+     * @param day The day of the month
+     * @return true if the given date is part of this set
+     */
+    public boolean contains(int year, int month, int day) {
+        return contains(EpochDay.of(year, month, day));
+    }
+
+    /**
+     * @param year The year
+     * @param month The month (0-11)
+     * @return A mask of the days of the given month in this set: bit (day - 1) is set if the
+     * day is part of the set
+     */
+    public int getMonthMask(int year, int month) {
+        final int firstOfMonth = EpochDay.of(year, month, 1);
+        final int daysInMonth = EpochDay.lengthOfMonth(year, month);
+        int mask = 0;
+        for (int i = 0; i < daysInMonth; i++) {
+            if (contains(firstOfMonth + i)) mask |= 1 << i;
+        }
+        return mask;
+    }
+
+    /**
+     * @return The first day of the set on or after the given day, Integer.MAX_VALUE if none
+     */
+    public int ceiling(int epochDay) {
+        int index = Arrays.binarySearch(mDays, epochDay);
+        if (index >= 0) return epochDay;
+        index = -index - 1;
+        return index < mDays.length ? mDays[index] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return The last day of the set on or before the given day, Integer.MIN_VALUE if none
+     */
+    public int floor(int epochDay) {
+        int index = Arrays.binarySearch(mDays, epochDay);
+        if (index >= 0) return epochDay;
+        index = -index - 2;
+        return index >= 0 ? mDays[index] : Integer.MIN_VALUE;
+    }
+
+    /**
+     * @return The day of the set closest to the given day, preferring the earlier day on a tie.
+     * Integer.MIN_VALUE if the set is empty
+     */
+    public int nearest(int epochDay) {
+        return closest(epochDay, floor(epochDay), ceiling(epochDay));
+    }
+
+    /**
+     * @return Whichever of before and after is closest to the given day, preferring before on
+     * a tie. The missing side is expected to be Integer.MIN_VALUE or Integer.MAX_VALUE
+     */
+    static int closest(int epochDay, int before, int after) {
+        if (after == Integer.MAX_VALUE) return before;
+        if (before == Integer.MIN_VALUE) return after;
+        return (long) after - epochDay < (long) epochDay - before ? after : before;
+    }
+
+    /**
+     * @return The days of this set, in ascending order
+     */
+    public int[] toArray() {
+        return mDays.clone();
+    }
+
+    public int size() {
+        return mDays.length;
+    }
+}
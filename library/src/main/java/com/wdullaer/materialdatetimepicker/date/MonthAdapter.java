@@ -23,13 +23,15 @@ import android.view.ViewGroup;
 import android.widget.AbsListView.LayoutParams;
 import android.widget.BaseAdapter;
 
+import com.wdullaer.materialdatetimepicker.R;
 import com.wdullaer.materialdatetimepicker.date.MonthView.OnDayClickListener;
 
 import java.util.Calendar;
-import java.util.HashMap;
+import java.util.Locale;
 
 /**
  * An adapter for a list of {@link MonthView} items.
+ * Item ids are the month keys of {@link MonthIndex}, so they are stable across range changes.
  */
 public abstract class MonthAdapter extends BaseAdapter implements OnDayClickListener {
 
@@ -43,6 +45,8 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
     protected static int WEEK_7_OVERHANG_HEIGHT = 7;
     protected static final int MONTHS_IN_YEAR = 12;
 
+    private String mMonthTitlePattern;
+
     /**
      * A convenience class to represent a specific date.
      */
@@ -82,6 +86,22 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
             this.day = day;
         }
 
+        /**
+         * @param epochDay The date to set, see {@link EpochDay}
+         */
+        public void setEpochDay(int epochDay) {
+            year = EpochDay.year(epochDay);
+            month = EpochDay.month(epochDay);
+            day = EpochDay.dayOfMonth(epochDay);
+        }
+
+        /**
+         * @return This date as an {@link EpochDay}
+         */
+        public int getEpochDay() {
+            return EpochDay.of(year, month, day);
+        }
+
         private void setTime(long timeInMillis) {
             if (calendar == null) {
                 calendar = Calendar.getInstance();
@@ -123,6 +143,16 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
         notifyDataSetChanged();
     }
 
+    /**
+     * Updates the selected day without rebinding the months. The caller is responsible for
+     * updating the MonthViews showing the old and the new selected day.
+     *
+     * @param day The day to highlight
+     */
+    void setSelectedDayInPlace(CalendarDay day) {
+        mSelectedDay = day;
+    }
+
     @SuppressWarnings("unused")
     public CalendarDay getSelectedDay() {
         return mSelectedDay;
@@ -137,12 +167,7 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
 
     @Override
     public int getCount() {
-        Calendar endDate = mController.getEndDate();
-        Calendar startDate = mController.getStartDate();
-        int endMonth = endDate.get(Calendar.YEAR) * MONTHS_IN_YEAR + endDate.get(Calendar.MONTH);
-        int startMonth = startDate.get(Calendar.YEAR) * MONTHS_IN_YEAR + startDate.get(Calendar.MONTH);
-        return endMonth - startMonth + 1;
-        //return ((mController.getMaxYear() - mController.getMinYear()) + 1) * MONTHS_IN_YEAR;
+        return mController.getMonthIndex().getCount();
     }
 
     @Override
@@ -152,7 +177,8 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
 
     @Override
     public long getItemId(int position) {
-        return position;
+        // Keyed by month rather than position, so ids survive a change of the start date
+        return mController.getMonthIndex().keyAt(position);
     }
 
     @Override
@@ -161,15 +187,11 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
     }
 
     @SuppressLint("NewApi")
-    @SuppressWarnings("unchecked")
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
         MonthView v;
-        HashMap<String, Integer> drawingParams = null;
         if (convertView != null) {
             v = (MonthView) convertView;
-            // We store the drawing parameters in the view so it can be recycled
-            drawingParams = (HashMap<String, Integer>) v.getTag();
         } else {
             v = createMonthView(mContext);
             // Set up the new view
@@ -179,13 +201,10 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
             v.setClickable(true);
             v.setOnDayClickListener(this);
         }
-        if (drawingParams == null) {
-            drawingParams = new HashMap<>();
-        }
-        drawingParams.clear();
 
-        final int month = (position + mController.getStartDate().get(Calendar.MONTH)) % MONTHS_IN_YEAR;
-        final int year = (position + mController.getStartDate().get(Calendar.MONTH)) / MONTHS_IN_YEAR + mController.getMinYear();
+        final MonthIndex index = mController.getMonthIndex();
+        final int month = index.monthAt(position);
+        final int year = index.yearAt(position);
 
         int selectedDay = -1;
         if (isSelectedDayInMonth(year, month)) {
@@ -196,10 +215,14 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
         // height/number of weeks before being displayed.
         v.reuse();
 
-        drawingParams.put(MonthView.VIEW_PARAMS_SELECTED_DAY, selectedDay);
-        drawingParams.put(MonthView.VIEW_PARAMS_YEAR, year);
-        drawingParams.put(MonthView.VIEW_PARAMS_MONTH, month);
-        drawingParams.put(MonthView.VIEW_PARAMS_WEEK_START, mController.getFirstDayOfWeek());
+        // The view owns its parameters, so they can be reused when it is recycled.
+        // Bypasses the deprecated map based setMonthParams and the tag it was stored in
+        MonthParams drawingParams = v.getMonthParams();
+        drawingParams.reset();
+        drawingParams.selectedDay = selectedDay;
+        drawingParams.year = year;
+        drawingParams.month = month;
+        drawingParams.weekStart = mController.getFirstDayOfWeek();
         v.setMonthParams(drawingParams);
         v.invalidate();
         return v;
@@ -207,6 +230,28 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
 
     public abstract MonthView createMonthView(Context context);
 
+    /**
+     * Loads everything binding the month at the given position will need, so its getView only
+     * has to hit warm caches.
+     * @return false if the position is outside of the list
+     */
+    boolean prefetchMonth(int position) {
+        if (position < 0 || position >= getCount()) return false;
+        final MonthIndex index = mController.getMonthIndex();
+        final int month = index.monthAt(position);
+        final int year = index.yearAt(position);
+
+        mController.loadAvailability(year, month);
+        mController.getHighlightedDayMask(year, month);
+        mController.isOutOfRange(year, month, 1);
+        mController.getDecorations(year, month);
+        if (mMonthTitlePattern == null) {
+            mMonthTitlePattern = mContext.getResources().getString(R.string.mdtp_date_v1_monthyear);
+        }
+        DateLabels.getMonthAndYear(Locale.getDefault(), mMonthTitlePattern, year, month);
+        return true;
+    }
+
     private boolean isSelectedDayInMonth(int year, int month) {
         return mSelectedDay.year == year && mSelectedDay.month == month;
     }
@@ -227,6 +272,9 @@ public abstract class MonthAdapter extends BaseAdapter implements OnDayClickList
     protected void onDayTapped(CalendarDay day) {
         mController.tryVibrate();
         mController.onDayOfMonthSelected(day.year, day.month, day.day);
-        setSelectedDay(day);
+        // The day picker usually has moved the selection already, when notified of the new date
+        if (!isSelectedDayInMonth(day.year, day.month) || mSelectedDay.day != day.day) {
+            setSelectedDay(day);
+        }
     }
 }
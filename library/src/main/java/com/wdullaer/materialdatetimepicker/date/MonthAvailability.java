@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wdullaer.materialdatetimepicker.date;
+
+/**
+ * The selectable and highlighted days of a single month, as returned by a
+ * {@link DateAvailabilityProvider}. Days are stored as masks: bit (day - 1) is set for
+ * every day of the month the flag applies to.
+ */
+public final class MonthAvailability {
+    private final int mSelectableDayMask;
+    private final int mHighlightedDayMask;
+
+    /**
+     * @param selectableDayMask The days that can be selected, see {@link #maskOf(int...)}
+     * @param highlightedDayMask The days that should be highlighted, see {@link #maskOf(int...)}
+     */
+    public MonthAvailability(int selectableDayMask, int highlightedDayMask) {
+        mSelectableDayMask = selectableDayMask;
+        mHighlightedDayMask = highlightedDayMask;
+    }
+
+    /**
+     * @param days Days of the month (1-31)
+     * @return A mask with the bit of each of the given days set
+     */
+    public static int maskOf(int... days) {
+        int mask = 0;
+        for (int day : days) {
+            if (day < 1 || day > 31) {
+                throw new IllegalArgumentException("Day of month out of range: " + day);
+            }
+            mask |= 1 << (day - 1);
+        }
+        return mask;
+    }
+
+    public int getSelectableDayMask() {
+        return mSelectableDayMask;
+    }
+
+    public int getHighlightedDayMask() {
+        return mHighlightedDayMask;
+    }
+
+    /**
+     * @param day The day of the month (1-31)
+     * @return true if the given day can be selected
+     */
+    public boolean isSelectable(int day) {
+        return (mSelectableDayMask & (1 << (day - 1))) != 0;
+    }
+
+    /**
+     * @param day The day of the month (1-31)
+     * @return true if the given day should be highlighted
+     */
+    public boolean isHighlighted(int day) {
+        return (mHighlightedDayMask & (1 << (day - 1))) != 0;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wdullaer.materialdatetimepicker.date;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseIntArray;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Loads {@link MonthAvailability} from a {@link DateAvailabilityProvider} on an executor and
+ * keeps the most recently used months in memory.
+ * All methods must be called on the main thread, results are delivered on the main thread.
+ */
+class MonthAvailabilityLoader {
+    private static final String TAG = "MonthAvailability";
+    // A failed month is loaded again after RETRY_DELAY_MS, doubling for every attempt
+    private static final int MAX_RETRIES = 3;
+    private static final long RETRY_DELAY_MS = 1000;
+    // The load state of a month which failed to load after all retries
+    private static final int STATE_FAILED = -1;
+
+    /**
+     * Called on the main thread when the availability of a month has been loaded, or when
+     * loading it failed for good.
+     */
+    interface OnMonthLoadedListener {
+        void onMonthLoaded(int year, int month);
+    }
+
+    private final DateAvailabilityProvider mProvider;
+    private final Executor mExecutor;
+    private final OnMonthLoadedListener mListener;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    // The most recently used months, most recent first, keyed by year * 12 + month.
+    // Plain arrays rather than an LruCache, so the lookups done for every day don't box the key
+    private final int[] mCacheKeys;
+    private final MonthAvailability[] mCacheMonths;
+    private int mCacheCount = 0;
+    // The months being loaded, with the number of failed attempts, and STATE_FAILED for the
+    // months which failed to load after all retries
+    private final SparseIntArray mStates = new SparseIntArray();
+    // Incremented when the loaded months are dropped, so the results still in flight are ignored
+    private int mGeneration = 0;
+    private boolean mReleased = false;
+
+    /**
+     * @param provider The source of the availability
+     * @param executor The executor the provider is queried on
+     * @param maxMonths The number of months to keep in memory
+     * @param listener Notified when a month has been loaded
+     */
+    MonthAvailabilityLoader(DateAvailabilityProvider provider, Executor executor, int maxMonths,
+                            OnMonthLoadedListener listener) {
+        mProvider = provider;
+        mExecutor = executor;
+        mListener = listener;
+        mCacheKeys = new int[maxMonths];
+        mCacheMonths = new MonthAvailability[maxMonths];
+    }
+
+    /**
+     * @param year The year
+     * @param month The month (0-11)
+     * @return The availability of the month, or null if it hasn't been loaded or failed to load
+     */
+    MonthAvailability get(int year, int month) {
+        return getCached(year * MonthAdapter.MONTHS_IN_YEAR + month);
+    }
+
+    /**
+     * @return true if the availability of the given month isn't known yet: it is queued, being
+     * loaded, waiting for a retry, or hasn't been requested. false if it is cached or failed to
+     * load for good
+     */
+    boolean isLoading(int year, int month) {
+        final int key = year * MonthAdapter.MONTHS_IN_YEAR + month;
+        return mStates.get(key) != STATE_FAILED && getCached(key) == null;
+    }
+
+    /**
+     * Queues the given month for loading, unless it is cached, already queued or failed to load
+     * @param year The year
+     * @param month The month (0-11)
+     */
+    void load(int year, int month) {
+        prefetch(year * MonthAdapter.MONTHS_IN_YEAR + month);
+    }
+
+    /**
+     * Queues the given month and the months around it for loading
+     * @param year The year
+     * @param month The month (0-11)
+     * @param window The number of months to load before and after the given month
+     * @param firstKey The first month that can be displayed, as year * 12 + month
+     * @param lastKey The last month that can be displayed, as year * 12 + month
+     */
+    void prefetch(int year, int month, int window, int firstKey, int lastKey) {
+        final int key = year * MonthAdapter.MONTHS_IN_YEAR + month;
+        // Load the given month first, then alternate outwards
+        for (int i = 0; i <= window; i++) {
+            if (key + i <= lastKey && key + i >= firstKey) prefetch(key + i);
+            if (i > 0 && key - i >= firstKey && key - i <= lastKey) prefetch(key - i);
+        }
+    }
+
+    private void prefetch(int key) {
+        if (getCached(key) == null) load(key);
+    }
+
+    private void load(final int key) {
+        // Pending and failed months both have a state
+        if (mReleased || mStates.indexOfKey(key) >= 0) return;
+        mStates.put(key, 0);
+        execute(key);
+    }
+
+    /**
+     * @return The cached availability of the given month, which becomes the most recently used
+     */
+    private MonthAvailability getCached(int key) {
+        for (int index = 0; index < mCacheCount; index++) {
+            if (mCacheKeys[index] == key) {
+                MonthAvailability availability = mCacheMonths[index];
+                moveToFront(index, key, availability);
+                return availability;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a month missing from the cache, dropping the least recently used one when full
+     */
+    private void putCached(int key, MonthAvailability availability) {
+        if (mCacheCount < mCacheKeys.length) mCacheCount++;
+        moveToFront(mCacheCount - 1, key, availability);
+    }
+
+    private void moveToFront(int index, int key, MonthAvailability availability) {
+        System.arraycopy(mCacheKeys, 0, mCacheKeys, 1, index);
+        System.arraycopy(mCacheMonths, 0, mCacheMonths, 1, index);
+        mCacheKeys[0] = key;
+        mCacheMonths[0] = availability;
+    }
+
+    private void execute(final int key) {
+        final int generation = mGeneration;
+        final int year = key / MonthAdapter.MONTHS_IN_YEAR;
+        final int month = key % MonthAdapter.MONTHS_IN_YEAR;
+        try {
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    MonthAvailability availability = null;
+                    try {
+                        availability = mProvider.getAvailability(year, month);
+                    } catch (RuntimeException e) {
+                        Log.w(TAG, "Failed to load the availability of " + year + "-" + (month + 1), e);
+                    }
+                    deliver(generation, key, availability);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            mStates.delete(key);
+        }
+    }
+
+    private void deliver(final int generation, final int key,
+                         final MonthAvailability availability) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (mReleased || generation != mGeneration) return;
+                if (availability == null) {
+                    final int attempts = mStates.get(key) + 1;
+                    if (attempts <= MAX_RETRIES) {
+                        // Stays pending, so binding the month doesn't queue it again
+                        mStates.put(key, attempts);
+                        retry(key, RETRY_DELAY_MS << (attempts - 1));
+                        return;
+                    }
+                    // Given up: the month is shown as unavailable rather than loading
+                    mStates.put(key, STATE_FAILED);
+                } else {
+                    putCached(key, availability);
+                    mStates.delete(key);
+                }
+                mListener.onMonthLoaded(key / MonthAdapter.MONTHS_IN_YEAR,
+                        key % MonthAdapter.MONTHS_IN_YEAR);
+            }
+        });
+    }
+
+    private void retry(final int key, long delay) {
+        mHandler.postDelayed(new Runnable() {
+            @Override
+            public void run() {
+                if (!mReleased) execute(key);
+            }
+        }, delay);
+    }
+
+    /**
+     * Drops the cached and failed months and ignores any result still in flight, so every month
+     * is loaded again the next time it is requested
+     */
+    void invalidate() {
+        mGeneration++;
+        mStates.clear();
+        Arrays.fill(mCacheMonths, null);
+        mCacheCount = 0;
+        mHandler.removeCallbacksAndMessages(null);
+    }
+
+    /**
+     * Drops the cached months and stops loading for good, the loader can't be used anymore
+     */
+    void release() {
+        mReleased = true;
+        invalidate();
+    }
+}
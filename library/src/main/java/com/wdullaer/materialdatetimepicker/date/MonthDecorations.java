@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wdullaer.materialdatetimepicker.date;
+
+import java.util.Arrays;
+
+/**
+ * The decorations of the days of a single month, filled in by a {@link DayDecorator}.
+ * Every day can have a color, a short label drawn below the day number and a few dots.
+ */
+public final class MonthDecorations {
+    /**
+     * The maximum number of dots drawn for a day
+     */
+    public static final int MAX_DOTS = 3;
+    private static final int MAX_DAYS = 31;
+
+    // Indexed by day - 1
+    private final byte[] mColorIndexes = new byte[MAX_DAYS];
+    private final byte[] mDotCounts = new byte[MAX_DAYS];
+    private final String[] mLabels = new String[MAX_DAYS];
+
+    MonthDecorations() {
+    }
+
+    /**
+     * @param day The day of the month (1-31)
+     * @param colorIndex The position of the color in the palette set with
+     *                   {@link DatePickerDialog#setDecorationColors(int...)}, starting at 1.
+     *                   0 to use the default color
+     */
+    public void setColorIndex(int day, int colorIndex) {
+        if (colorIndex < 0 || colorIndex > 255) {
+            throw new IllegalArgumentException("Color index must be between 0 and 255");
+        }
+        mColorIndexes[indexOf(day)] = (byte) colorIndex;
+    }
+
+    /**
+     * @param day The day of the month (1-31)
+     * @param label A short text drawn below the day number. null to remove it
+     */
+    public void setLabel(int day, String label) {
+        mLabels[indexOf(day)] = label;
+    }
+
+    /**
+     * @param day The day of the month (1-31)
+     * @param dotCount The number of dots drawn above the day number, at most {@link #MAX_DOTS}
+     */
+    public void setDotCount(int day, int dotCount) {
+        if (dotCount < 0 || dotCount > MAX_DOTS) {
+            throw new IllegalArgumentException("Dot count must be between 0 and " + MAX_DOTS);
+        }
+        mDotCounts[indexOf(day)] = (byte) dotCount;
+    }
+
+    public int getColorIndex(int day) {
+        return mColorIndexes[indexOf(day)] & 0xff;
+    }
+
+    public String getLabel(int day) {
+        return mLabels[indexOf(day)];
+    }
+
+    public int getDotCount(int day) {
+        return mDotCounts[indexOf(day)];
+    }
+
+    /**
+     * Removes all decorations
+     */
+    public void clear() {
+        Arrays.fill(mColorIndexes, (byte) 0);
+        Arrays.fill(mDotCounts, (byte) 0);
+        Arrays.fill(mLabels, null);
+    }
+
+    private static int indexOf(int day) {
+        if (day < 1 || day > MAX_DAYS) {
+            throw new IllegalArgumentException("Day of month out of range: " + day);
+        }
+        return day - 1;
+    }
+}
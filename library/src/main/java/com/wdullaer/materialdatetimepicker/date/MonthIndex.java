@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.wdullaer.materialdatetimepicker.date;
+
+/**
+ * Maps the positions of the month list onto months and back, for a fixed selectable range.
+ * Months are identified by their key, year * 12 + month, so every conversion is plain integer
+ * arithmetic and nothing needs a Calendar while scrolling.
+ */
+public final class MonthIndex {
+    // The key of the month at position 0
+    private final int mFirstKey;
+    private final int mCount;
+
+    /**
+     * @param startEpochDay The first selectable day, see {@link EpochDay}
+     * @param endEpochDay The last selectable day
+     */
+    public MonthIndex(int startEpochDay, int endEpochDay) {
+        mFirstKey = keyOf(EpochDay.year(startEpochDay), EpochDay.month(startEpochDay));
+        mCount = keyOf(EpochDay.year(endEpochDay), EpochDay.month(endEpochDay)) - mFirstKey + 1;
+    }
+
+    /**
+     * @param year The year
+     * @param month The month (0-11)
+     * @return The key of the given month, which orders months chronologically
+     */
+    public static int keyOf(int year, int month) {
+        return year * MonthAdapter.MONTHS_IN_YEAR + month;
+    }
+
+    /**
+     * @return The number of months in the range
+     */
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * @return The key of the month at the given position
+     */
+    public int keyAt(int position) {
+        return mFirstKey + position;
+    }
+
+    /**
+     * @return The year of the month at the given position
+     */
+    public int yearAt(int position) {
+        final int key = keyAt(position);
+        final int months = MonthAdapter.MONTHS_IN_YEAR;
+        return (key >= 0 ? key : key - (months - 1)) / months;
+    }
+
+    /**
+     * @return The month (0-11) at the given position
+     */
+    public int monthAt(int position) {
+        return keyAt(position) - yearAt(position) * MonthAdapter.MONTHS_IN_YEAR;
+    }
+
+    /**
+     * @param year The year
+     * @param month The month (0-11)
+     * @return The position of the given month. This is outside of [0, getCount()) if the month
+     * is outside of the range
+     */
+    public int positionOf(int year, int month) {
+        return keyOf(year, month) - mFirstKey;
+    }
+}
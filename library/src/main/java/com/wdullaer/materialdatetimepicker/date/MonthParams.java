@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wdullaer.materialdatetimepicker.date;
+
+/**
+ * The parameters used to bind a {@link MonthView} to a month.
+ * Every MonthView owns one instance, which is reused every time the view is bound, see
+ * {@link MonthView#getMonthParams()}.
+ */
+public final class MonthParams {
+    /**
+     * Marks an optional parameter as not set, the view keeps its current value
+     */
+    public static final int UNSET = Integer.MIN_VALUE;
+
+    /**
+     * The year of the month to display. Required
+     */
+    public int year;
+    /**
+     * The month to display (0-11). Required
+     */
+    public int month;
+    /**
+     * The day of the month to show as selected, -1 if no day is selected
+     */
+    public int selectedDay;
+    /**
+     * The first day of the week, {@link java.util.Calendar#SUNDAY} through
+     * {@link java.util.Calendar#SATURDAY}. The default of the current locale is used if unset
+     */
+    public int weekStart;
+    /**
+     * The height of a row of days in pixels
+     */
+    public int height;
+
+    public MonthParams() {
+        reset();
+    }
+
+    /**
+     * Marks every parameter as unset
+     */
+    public void reset() {
+        year = UNSET;
+        month = UNSET;
+        selectedDay = UNSET;
+        weekStart = UNSET;
+        height = UNSET;
+    }
+}
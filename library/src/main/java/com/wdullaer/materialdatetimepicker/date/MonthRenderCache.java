@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.wdullaer.materialdatetimepicker.date;
+
+import android.graphics.Bitmap;
+import android.support.v4.util.LruCache;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the static content of recently drawn months (title, weekday labels and every day
+ * number except the selected one) as Bitmaps, within a memory budget shared by all the
+ * MonthViews of a picker. The least recently drawn months are dropped first.
+ * Moving the selection within a month records that month again.
+ * Dropped bitmaps are not recycled, as a hardware accelerated view can keep drawing a bitmap
+ * from its display list without calling onDraw again.
+ * Must only be used on the main thread. Enable it with
+ * {@link DatePickerDialog#setMonthRenderCacheSize(int)}.
+ */
+public class MonthRenderCache extends LruCache<MonthRenderCache.Key, Bitmap> {
+
+    /**
+     * @param maxBytes The memory budget of the cache in bytes
+     */
+    MonthRenderCache(int maxBytes) {
+        super(maxBytes);
+    }
+
+    @Override
+    protected int sizeOf(Key key, Bitmap bitmap) {
+        return bitmap.getByteCount();
+    }
+
+    /**
+     * Everything the static content of a month depends on: the month, the theme, the size of
+     * the view and the state of every day. A view keeps one key up to date and uses it to look
+     * up its content, a copy is stored in the cache.
+     */
+    static final class Key {
+        int year;
+        int month;
+        int width;
+        int height;
+        boolean themeDark;
+        int accentColor;
+        int weekStart;
+        // The state of each day, without the selection
+        final byte[] dayFlags = new byte[32];
+        // The selected day, which is left out of the content as it is drawn on top. -1 if none
+        int excludedDay;
+        // Compared by identity, as they are immutable or shared between views
+        String title;
+        String[] weekDayLabels;
+        String[] dayNumbers;
+        MonthDecorations decorations;
+        int[] decorationColors;
+
+        Key copy() {
+            Key copy = new Key();
+            copy.year = year;
+            copy.month = month;
+            copy.width = width;
+            copy.height = height;
+            copy.themeDark = themeDark;
+            copy.accentColor = accentColor;
+            copy.weekStart = weekStart;
+            copy.excludedDay = excludedDay;
+            System.arraycopy(dayFlags, 0, copy.dayFlags, 0, dayFlags.length);
+            copy.title = title;
+            copy.weekDayLabels = weekDayLabels;
+            copy.dayNumbers = dayNumbers;
+            copy.decorations = decorations;
+            copy.decorationColors = decorationColors;
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return year == other.year && month == other.month
+                    && width == other.width && height == other.height
+                    && themeDark == other.themeDark && accentColor == other.accentColor
+                    && weekStart == other.weekStart
+                    && excludedDay == other.excludedDay
+                    && title.equals(other.title)
+                    && weekDayLabels == other.weekDayLabels
+                    && dayNumbers == other.dayNumbers
+                    && decorations == other.decorations
+                    && decorationColors == other.decorationColors
+                    && Arrays.equals(dayFlags, other.dayFlags);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = year * 12 + month;
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + (themeDark ? 1 : 0);
+            result = 31 * result + accentColor;
+            result = 31 * result + weekStart;
+            result = 31 * result + excludedDay;
+            result = 31 * result + Arrays.hashCode(dayFlags);
+            return result;
+        }
+    }
+}
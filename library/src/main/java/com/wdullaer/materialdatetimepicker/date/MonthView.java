@@ -18,13 +18,13 @@ package com.wdullaer.materialdatetimepicker.date;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Paint.Align;
 import android.graphics.Paint.Style;
 import android.graphics.Rect;
 import android.graphics.Typeface;
-import android.os.Build;
 import android.os.Bundle;
 import android.support.annotation.NonNull;
 import android.support.v4.content.ContextCompat;
@@ -43,9 +43,7 @@ import com.wdullaer.materialdatetimepicker.TypefaceHelper;
 import com.wdullaer.materialdatetimepicker.date.MonthAdapter.CalendarDay;
 
 import java.security.InvalidParameterException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Formatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -111,12 +109,25 @@ public abstract class MonthView extends View {
 
     private static final int SELECTED_CIRCLE_ALPHA = 255;
 
+    // The state of a day, as stored in mDayFlags
+    protected static final byte DAY_FLAG_DISABLED = 1;
+    protected static final byte DAY_FLAG_HIGHLIGHTED = 1 << 1;
+    protected static final byte DAY_FLAG_TODAY = 1 << 2;
+    protected static final byte DAY_FLAG_SELECTED = 1 << 3;
+    // Set together with DAY_FLAG_DISABLED while the availability of the month is loading
+    protected static final byte DAY_FLAG_LOADING = 1 << 4;
+
+    // The alpha of the day numbers of a month whose availability is still loading
+    private static final int LOADING_DAY_ALPHA = 80;
+
     protected static int DAY_SEPARATOR_WIDTH = 1;
     protected static int MINI_DAY_NUMBER_TEXT_SIZE;
     protected static int MONTH_LABEL_TEXT_SIZE;
     protected static int MONTH_DAY_LABEL_TEXT_SIZE;
     protected static int MONTH_HEADER_SIZE;
     protected static int DAY_SELECTED_CIRCLE_SIZE;
+    protected static int DECORATION_LABEL_TEXT_SIZE;
+    protected static int DECORATION_DOT_RADIUS;
 
     // used for scaling to the device density
     protected static float mScale = 0;
@@ -133,9 +144,26 @@ public abstract class MonthView extends View {
     protected Paint mMonthTitlePaint;
     protected Paint mSelectedCirclePaint;
     protected Paint mMonthDayLabelPaint;
-
-    private final Formatter mFormatter;
-    private final StringBuilder mStringBuilder;
+    protected Paint mDecorationLabelPaint;
+    // One paint per state of a day number, derived from mMonthNumPaint by updateDayNumberPaints
+    protected Paint mNormalDayPaint;
+    protected Paint mHighlightedDayPaint;
+    protected Paint mDisabledDayPaint;
+    protected Paint mHighlightedDisabledDayPaint;
+    protected Paint mLoadingDayPaint;
+    protected Paint mSelectedDayPaint;
+    protected Paint mTodayPaint;
+    protected Paint mHighlightedTodayPaint;
+    // Takes the color of a decorated day, set right before drawing it
+    protected Paint mDecoratedDayPaint;
+    protected Paint mDecorationDotPaint;
+
+    // The month and year format used before API 18
+    private final String mLegacyMonthAndYearPattern;
+    // The title of the bound month
+    private String mMonthTitle = "";
+    // The weekday labels in display order, starting at mWeekStart
+    private String[] mWeekDayLabels = DateLabels.getWeekDayLabels(Locale.getDefault(), DEFAULT_WEEK_START);
 
     // The Julian day of the first day displayed by this item
     protected int mFirstJulianDay = -1;
@@ -157,6 +185,27 @@ public abstract class MonthView extends View {
     protected int mSelectedDay = -1;
     // Which day is today [0-6] or -1 if no day is today
     protected int mToday = DEFAULT_SELECTED_DAY;
+    // Bit (day - 1) is set if that day of the month is highlighted
+    protected int mHighlightedDayMask = 0;
+    // Whether the availability of this month is still being loaded
+    protected boolean mLoading = false;
+    // The DAY_FLAG_* state of each day, indexed by day of the month. Computed when binding
+    protected final byte[] mDayFlags = new byte[32];
+    // The column of the first day of the month, computed when binding
+    protected int mDayOffset = 0;
+    // The bounds of the cell of each day, indexed by day of the month. Computed by updateGeometry
+    private final int[] mCellLeft = new int[32];
+    private final int[] mCellTop = new int[32];
+    private final int[] mCellRight = new int[32];
+    private final int[] mCellBottom = new int[32];
+    // Shared cache of the static content of months, null if disabled
+    private MonthRenderCache mRenderCache;
+    private final MonthRenderCache.Key mRenderKey = new MonthRenderCache.Key();
+    // The decorations of this month, null if there are none
+    protected MonthDecorations mDecorations;
+    protected int[] mDecorationColors;
+    // The day numbers in the current locale, indexed by day of the month
+    protected String[] mDayNumbers = DateLabels.getDayNumbers(Locale.getDefault());
     // Which day of the week to start on [0-6]
     protected int mWeekStart = DEFAULT_WEEK_START;
     // How many days to display
@@ -169,6 +218,9 @@ public abstract class MonthView extends View {
     protected int mSelectedRight = -1;
 
     private final Calendar mCalendar;
+    private final Calendar mTodayCalendar = Calendar.getInstance();
+    private final MonthParams mMonthParams = new MonthParams();
+    // No longer used to draw the weekday labels, which come from DateLabels. Kept for subclasses
     protected final Calendar mDayLabelCalendar;
     private final MonthViewTouchHelper mTouchHelper;
 
@@ -220,8 +272,7 @@ public abstract class MonthView extends View {
         mTodayNumberColor = mController.getAccentColor();
         mMonthTitleColor = ContextCompat.getColor(context, R.color.mdtp_white);
 
-        mStringBuilder = new StringBuilder(50);
-        mFormatter = new Formatter(mStringBuilder, Locale.getDefault());
+        mLegacyMonthAndYearPattern = res.getString(R.string.mdtp_date_v1_monthyear);
 
         MINI_DAY_NUMBER_TEXT_SIZE = res.getDimensionPixelSize(R.dimen.mdtp_day_number_size);
         MONTH_LABEL_TEXT_SIZE = res.getDimensionPixelSize(R.dimen.mdtp_month_label_size);
@@ -229,6 +280,8 @@ public abstract class MonthView extends View {
         MONTH_HEADER_SIZE = res.getDimensionPixelOffset(R.dimen.mdtp_month_list_item_header_height);
         DAY_SELECTED_CIRCLE_SIZE = res
                 .getDimensionPixelSize(R.dimen.mdtp_day_number_select_circle_radius);
+        DECORATION_LABEL_TEXT_SIZE = res.getDimensionPixelSize(R.dimen.mdtp_day_decoration_label_size);
+        DECORATION_DOT_RADIUS = res.getDimensionPixelSize(R.dimen.mdtp_day_decoration_dot_radius);
 
         mRowHeight = (res.getDimensionPixelOffset(R.dimen.mdtp_date_picker_view_animator_height)
                 - getMonthHeaderSize()) / MAX_NUM_ROWS;
@@ -241,6 +294,8 @@ public abstract class MonthView extends View {
 
         // Sets up any standard paints that will be used
         initView();
+        // After initView, so the changes an override makes to mMonthNumPaint are picked up
+        updateDayNumberPaints();
     }
 
     public void setDatePickerController(DatePickerController controller) {
@@ -323,15 +378,122 @@ public abstract class MonthView extends View {
         mMonthNumPaint.setStyle(Style.FILL);
         mMonthNumPaint.setTextAlign(Align.CENTER);
         mMonthNumPaint.setFakeBoldText(false);
+
+        mDecorationLabelPaint = new Paint();
+        mDecorationLabelPaint.setAntiAlias(true);
+        mDecorationLabelPaint.setTextSize(DECORATION_LABEL_TEXT_SIZE);
+        mDecorationLabelPaint.setStyle(Style.FILL);
+        mDecorationLabelPaint.setTextAlign(Align.CENTER);
+
+        mDecorationDotPaint = new Paint();
+        mDecorationDotPaint.setAntiAlias(true);
+        mDecorationDotPaint.setStyle(Style.FILL);
+    }
+
+    /**
+     * Derives the paint of every state of a day number from {@link #mMonthNumPaint}, only
+     * changing the typeface and the color. Called after {@link #initView()}, call it again
+     * after changing mMonthNumPaint later on, as the day numbers are drawn with these paints.
+     */
+    protected void updateDayNumberPaints() {
+        Typeface normal = Typeface.create(Typeface.DEFAULT, Typeface.NORMAL);
+        Typeface bold = Typeface.create(Typeface.DEFAULT, Typeface.BOLD);
+        mNormalDayPaint = createDayNumberPaint(mNormalDayPaint, normal, mDayTextColor);
+        mHighlightedDayPaint = createDayNumberPaint(mHighlightedDayPaint, bold, mHighlightedDayTextColor);
+        mDisabledDayPaint = createDayNumberPaint(mDisabledDayPaint, normal, mDisabledDayTextColor);
+        mHighlightedDisabledDayPaint = createDayNumberPaint(mHighlightedDisabledDayPaint, bold,
+                mDisabledDayTextColor);
+        mLoadingDayPaint = createDayNumberPaint(mLoadingDayPaint, normal, mDayTextColor);
+        mLoadingDayPaint.setAlpha(LOADING_DAY_ALPHA);
+        mSelectedDayPaint = createDayNumberPaint(mSelectedDayPaint, bold, mSelectedDayTextColor);
+        mTodayPaint = createDayNumberPaint(mTodayPaint, normal, mTodayNumberColor);
+        mHighlightedTodayPaint = createDayNumberPaint(mHighlightedTodayPaint, bold, mTodayNumberColor);
+        mDecoratedDayPaint = createDayNumberPaint(mDecoratedDayPaint, normal, mDayTextColor);
+        // The cached content was drawn with the previous paints
+        if (mRenderCache != null) mRenderCache.evictAll();
+        invalidate();
+    }
+
+    /**
+     * @param paint The paint to update, null to create it
+     */
+    private Paint createDayNumberPaint(Paint paint, Typeface typeface, int color) {
+        if (paint == null) paint = new Paint(mMonthNumPaint);
+        else paint.set(mMonthNumPaint);
+        paint.setTypeface(typeface);
+        paint.setColor(color);
+        return paint;
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
+        if (mRenderCache != null && drawFromRenderCache(canvas)) return;
+
         drawMonthTitle(canvas);
         drawMonthDayLabels(canvas);
         drawMonthNums(canvas);
     }
 
+    /**
+     * Draws the static content of the month from the render cache, recording it first if
+     * needed, and draws the selected day on top of it.
+     * @return false if the content can't be cached, it should be drawn directly instead
+     */
+    private boolean drawFromRenderCache(Canvas canvas) {
+        final int width = getWidth();
+        final int height = getHeight();
+        if (width <= 0 || height <= 0) return false;
+        // Don't record content that would be evicted right away
+        if ((long) width * height * 4 > mRenderCache.maxSize()) return false;
+
+        final boolean hasSelection = mSelectedDay >= 1 && mSelectedDay <= mNumCells;
+        mRenderKey.width = width;
+        mRenderKey.height = height;
+        mRenderKey.excludedDay = hasSelection ? mSelectedDay : -1;
+        Bitmap content = mRenderCache.get(mRenderKey);
+        if (content == null) {
+            try {
+                content = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                return false;
+            }
+            Canvas contentCanvas = new Canvas(content);
+            drawMonthTitle(contentCanvas);
+            drawMonthDayLabels(contentCanvas);
+            // The selected day is left out, so it isn't drawn twice in two different states
+            drawMonthNums(contentCanvas, mRenderKey.excludedDay);
+            mRenderCache.put(mRenderKey.copy(), content);
+        }
+        canvas.drawBitmap(content, 0, 0, null);
+
+        if (hasSelection) {
+            drawDay(canvas, mSelectedDay);
+        }
+        return true;
+    }
+
+    /**
+     * Updates the key the static content of this view is cached under
+     */
+    private void updateRenderKey() {
+        mRenderCache = mController.getMonthRenderCache();
+        if (mRenderCache == null) return;
+
+        mRenderKey.year = mYear;
+        mRenderKey.month = mMonth;
+        mRenderKey.themeDark = mController.isThemeDark();
+        mRenderKey.accentColor = mTodayNumberColor;
+        mRenderKey.weekStart = mWeekStart;
+        for (int i = 0; i < mDayFlags.length; i++) {
+            mRenderKey.dayFlags[i] = (byte) (mDayFlags[i] & ~DAY_FLAG_SELECTED);
+        }
+        mRenderKey.title = mMonthTitle;
+        mRenderKey.weekDayLabels = mWeekDayLabels;
+        mRenderKey.dayNumbers = mDayNumbers;
+        mRenderKey.decorations = mDecorations;
+        mRenderKey.decorationColors = mDecorationColors;
+    }
+
     private int mDayOfWeekStart = 0;
 
     /**
@@ -343,31 +505,68 @@ public abstract class MonthView extends View {
      *
      * @param params A map of the new parameters, see
      *            {@link #VIEW_PARAMS_HEIGHT}
+     * @deprecated {@link MonthAdapter} binds its views through
+     * {@link #setMonthParams(MonthParams)} and no longer calls this method, nor stores the map
+     * in the tag of the view. Subclasses customizing the binding should override
+     * {@link #setMonthParams(MonthParams)} instead.
      */
+    @Deprecated
     public void setMonthParams(HashMap<String, Integer> params) {
         if (!params.containsKey(VIEW_PARAMS_MONTH) && !params.containsKey(VIEW_PARAMS_YEAR)) {
             throw new InvalidParameterException("You must specify month and year for this view");
         }
         setTag(params);
-        // We keep the current value for any params not present
+        mMonthParams.reset();
+        mMonthParams.year = params.get(VIEW_PARAMS_YEAR);
+        mMonthParams.month = params.get(VIEW_PARAMS_MONTH);
         if (params.containsKey(VIEW_PARAMS_HEIGHT)) {
-            mRowHeight = params.get(VIEW_PARAMS_HEIGHT);
+            mMonthParams.height = params.get(VIEW_PARAMS_HEIGHT);
+        }
+        if (params.containsKey(VIEW_PARAMS_SELECTED_DAY)) {
+            mMonthParams.selectedDay = params.get(VIEW_PARAMS_SELECTED_DAY);
+        }
+        if (params.containsKey(VIEW_PARAMS_WEEK_START)) {
+            mMonthParams.weekStart = params.get(VIEW_PARAMS_WEEK_START);
+        }
+        setMonthParams(mMonthParams);
+    }
+
+    /**
+     * @return The parameters this view is bound with. Fill them in and pass them to
+     * {@link #setMonthParams(MonthParams)} to bind the view without allocating
+     */
+    public MonthParams getMonthParams() {
+        return mMonthParams;
+    }
+
+    /**
+     * Binds this view to a month. Optional parameters that are unset keep their current
+     * value, except for the week start which defaults to the one of the current locale.
+     * This is the method {@link MonthAdapter} binds its views with.
+     *
+     * @param params The new parameters, year and month are required
+     */
+    public void setMonthParams(MonthParams params) {
+        if (params.year == MonthParams.UNSET || params.month == MonthParams.UNSET) {
+            throw new InvalidParameterException("You must specify month and year for this view");
+        }
+        // We keep the current value for any params not present
+        if (params.height != MonthParams.UNSET) {
+            mRowHeight = params.height;
             if (mRowHeight < MIN_HEIGHT) {
                 mRowHeight = MIN_HEIGHT;
             }
         }
-        if (params.containsKey(VIEW_PARAMS_SELECTED_DAY)) {
-            mSelectedDay = params.get(VIEW_PARAMS_SELECTED_DAY);
+        if (params.selectedDay != MonthParams.UNSET) {
+            mSelectedDay = params.selectedDay;
         }
 
-        // Allocate space for caching the day numbers and focus values
-        mMonth = params.get(VIEW_PARAMS_MONTH);
-        mYear = params.get(VIEW_PARAMS_YEAR);
+        mMonth = params.month;
+        mYear = params.year;
 
         // Figure out what day today is
-        //final Time today = new Time(Time.getCurrentTimezone());
-        //today.setToNow();
-        final Calendar today = Calendar.getInstance();
+        final Calendar today = mTodayCalendar;
+        today.setTimeInMillis(System.currentTimeMillis());
         mHasToday = false;
         mToday = -1;
 
@@ -376,28 +575,98 @@ public abstract class MonthView extends View {
         mCalendar.set(Calendar.DAY_OF_MONTH, 1);
         mDayOfWeekStart = mCalendar.get(Calendar.DAY_OF_WEEK);
 
-        if (params.containsKey(VIEW_PARAMS_WEEK_START)) {
-            mWeekStart = params.get(VIEW_PARAMS_WEEK_START);
+        if (params.weekStart != MonthParams.UNSET) {
+            mWeekStart = params.weekStart;
         } else {
             mWeekStart = mCalendar.getFirstDayOfWeek();
         }
 
         mNumCells = mCalendar.getActualMaximum(Calendar.DAY_OF_MONTH);
-        for (int i = 0; i < mNumCells; i++) {
-            final int day = i + 1;
-            if (sameDay(day, today)) {
-                mHasToday = true;
-                mToday = day;
-            }
+        if (mYear == today.get(Calendar.YEAR) && mMonth == today.get(Calendar.MONTH)) {
+            mHasToday = true;
+            mToday = today.get(Calendar.DAY_OF_MONTH);
         }
+        mDayOffset = findDayOffset();
         mNumRows = calculateNumRows();
+        updateGeometry();
+        mController.loadAvailability(mYear, mMonth);
+        mHighlightedDayMask = mController.getHighlightedDayMask(mYear, mMonth);
+        mLoading = mController.isMonthLoading(mYear, mMonth);
+        mDecorations = mController.getDecorations(mYear, mMonth);
+        mDecorationColors = mController.getDecorationColors();
+        mDayNumbers = DateLabels.getDayNumbers(Locale.getDefault());
+        mMonthTitle = getMonthAndYearString();
+        mWeekDayLabels = DateLabels.getWeekDayLabels(Locale.getDefault(), mWeekStart);
+        updateDayFlags();
+        updateRenderKey();
 
         // Invalidate cached accessibility information.
+        mTouchHelper.invalidateDescriptions();
+        mTouchHelper.invalidateRoot();
+    }
+
+    /**
+     * Picks up newly loaded availability for the month shown by this view and redraws it.
+     */
+    public void onAvailabilityChanged() {
+        mHighlightedDayMask = mController.getHighlightedDayMask(mYear, mMonth);
+        mLoading = mController.isMonthLoading(mYear, mMonth);
+        updateDayFlags();
+        updateRenderKey();
         mTouchHelper.invalidateRoot();
+        invalidate();
+    }
+
+    /**
+     * Evaluates the state of every day of the bound month, so drawing only reads mDayFlags
+     */
+    private void updateDayFlags() {
+        for (int day = 1; day <= mNumCells; day++) {
+            byte flags = 0;
+            if (mLoading) flags |= DAY_FLAG_DISABLED | DAY_FLAG_LOADING;
+            else if (mController.isOutOfRange(mYear, mMonth, day)) flags |= DAY_FLAG_DISABLED;
+            // Through the overridable check, which reads the mask of the bound month
+            if (isHighlighted(mYear, mMonth, day)) flags |= DAY_FLAG_HIGHLIGHTED;
+            if (mHasToday && mToday == day) flags |= DAY_FLAG_TODAY;
+            if (mSelectedDay == day) flags |= DAY_FLAG_SELECTED;
+            mDayFlags[day] = flags;
+        }
+        for (int day = mNumCells + 1; day < mDayFlags.length; day++) {
+            mDayFlags[day] = 0;
+        }
+    }
+
+    /**
+     * Moves the selection within the bound month, redrawing only the old and the new
+     * selected day.
+     *
+     * @param day The new selected day, -1 if no day of this month is selected
+     */
+    public void updateSelectedDay(int day) {
+        final int oldDay = mSelectedDay;
+        if (oldDay == day) return;
+        setSelectedDay(day);
+        invalidateDay(oldDay);
+        invalidateDay(day);
+    }
+
+    private void invalidateDay(int day) {
+        if (day < 1 || day > mNumCells) return;
+        // The selected circle can reach slightly outside of the cell
+        final int margin = DAY_SELECTED_CIRCLE_SIZE;
+        invalidate(mCellLeft[day] - margin, mCellTop[day] - margin,
+                mCellRight[day] + margin, mCellBottom[day] + margin);
+        mTouchHelper.invalidateVirtualView(day);
     }
 
     public void setSelectedDay(int day) {
+        if (mSelectedDay >= 1 && mSelectedDay <= mNumCells) {
+            mDayFlags[mSelectedDay] &= ~DAY_FLAG_SELECTED;
+        }
         mSelectedDay = day;
+        if (mSelectedDay >= 1 && mSelectedDay <= mNumCells) {
+            mDayFlags[mSelectedDay] |= DAY_FLAG_SELECTED;
+        }
     }
 
     public void reuse() {
@@ -406,18 +675,12 @@ public abstract class MonthView extends View {
     }
 
     private int calculateNumRows() {
-        int offset = findDayOffset();
+        int offset = mDayOffset;
         int dividend = (offset + mNumCells) / mNumDays;
         int remainder = (offset + mNumCells) % mNumDays;
         return (dividend + (remainder > 0 ? 1 : 0));
     }
 
-    private boolean sameDay(int day, Calendar today) {
-        return mYear == today.get(Calendar.YEAR) &&
-                mMonth == today.get(Calendar.MONTH) &&
-                day == today.get(Calendar.DAY_OF_MONTH);
-    }
-
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec), mRowHeight * mNumRows
@@ -427,6 +690,7 @@ public abstract class MonthView extends View {
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         mWidth = w;
+        updateGeometry();
 
         // Invalidate cached accessibility information.
         mTouchHelper.invalidateRoot();
@@ -449,22 +713,14 @@ public abstract class MonthView extends View {
 
     @NonNull
     private String getMonthAndYearString() {
-        Locale locale = Locale.getDefault();
-        String pattern = "MMMM yyyy";
-
-        if(Build.VERSION.SDK_INT < 18) pattern = getContext().getResources().getString(R.string.mdtp_date_v1_monthyear);
-        else pattern = DateFormat.getBestDateTimePattern(locale, pattern);
-
-        SimpleDateFormat formatter = new SimpleDateFormat(pattern, locale);
-        formatter.applyLocalizedPattern(pattern);
-        mStringBuilder.setLength(0);
-        return formatter.format(mCalendar.getTime());
+        return DateLabels.getMonthAndYear(Locale.getDefault(), mLegacyMonthAndYearPattern,
+                mYear, mMonth);
     }
 
     protected void drawMonthTitle(Canvas canvas) {
         int x = (mWidth + 2 * mEdgePadding) / 2;
         int y = (getMonthHeaderSize() - MONTH_DAY_LABEL_TEXT_SIZE) / 2;
-        canvas.drawText(getMonthAndYearString(), x, y, mMonthTitlePaint);
+        canvas.drawText(mMonthTitle, x, y, mMonthTitlePaint);
     }
 
     protected void drawMonthDayLabels(Canvas canvas) {
@@ -474,10 +730,7 @@ public abstract class MonthView extends View {
         for (int i = 0; i < mNumDays; i++) {
             int x = (2 * i + 1) * dayWidthHalf + mEdgePadding;
 
-            int calendarDay = (i + mWeekStart) % mNumDays;
-            mDayLabelCalendar.set(Calendar.DAY_OF_WEEK, calendarDay);
-            String weekString = getWeekDayLabel(mDayLabelCalendar);
-            canvas.drawText(weekString, x, y, mMonthDayLabelPaint);
+            canvas.drawText(mWeekDayLabels[i], x, y, mMonthDayLabelPaint);
         }
     }
 
@@ -488,28 +741,44 @@ public abstract class MonthView extends View {
      * @param canvas The canvas to draw on
      */
     protected void drawMonthNums(Canvas canvas) {
-        int y = (((mRowHeight + MINI_DAY_NUMBER_TEXT_SIZE) / 2) - DAY_SEPARATOR_WIDTH)
-                + getMonthHeaderSize();
-        final float dayWidthHalf = (mWidth - mEdgePadding * 2) / (mNumDays * 2.0f);
-        int j = findDayOffset();
+        drawMonthNums(canvas, -1);
+    }
+
+    /**
+     * Draws the numbers of every day except the given one
+     *
+     * @param canvas The canvas to draw on
+     * @param excludedDay The day of the month to leave out, -1 to draw every day
+     */
+    private void drawMonthNums(Canvas canvas, int excludedDay) {
         for (int dayNumber = 1; dayNumber <= mNumCells; dayNumber++) {
-            final int x = (int)((2 * j + 1) * dayWidthHalf + mEdgePadding);
+            if (dayNumber != excludedDay) drawDay(canvas, dayNumber);
+        }
+    }
 
-            int yRelativeToDay = (mRowHeight + MINI_DAY_NUMBER_TEXT_SIZE) / 2 - DAY_SEPARATOR_WIDTH;
+    /**
+     * Draws a single day, at the same position as {@link #drawMonthNums(Canvas)} does
+     *
+     * @param canvas The canvas to draw on
+     * @param day The day of the month to draw
+     */
+    private void drawDay(Canvas canvas, int day) {
+        final int index = day - 1 + mDayOffset;
+        final int row = index / mNumDays;
+        final int column = index % mNumDays;
+        final int y = (((mRowHeight + MINI_DAY_NUMBER_TEXT_SIZE) / 2) - DAY_SEPARATOR_WIDTH)
+                + getMonthHeaderSize() + row * mRowHeight;
+        final float dayWidthHalf = (mWidth - mEdgePadding * 2) / (mNumDays * 2.0f);
+        final int x = (int)((2 * column + 1) * dayWidthHalf + mEdgePadding);
 
-            final int startX = (int)(x - dayWidthHalf);
-            final int stopX = (int)(x + dayWidthHalf);
-            final int startY = (int)(y - yRelativeToDay);
-            final int stopY = (int)(startY + mRowHeight);
+        int yRelativeToDay = (mRowHeight + MINI_DAY_NUMBER_TEXT_SIZE) / 2 - DAY_SEPARATOR_WIDTH;
 
-            drawMonthDay(canvas, mYear, mMonth, dayNumber, x, y, startX, stopX, startY, stopY);
+        final int startX = (int)(x - dayWidthHalf);
+        final int stopX = (int)(x + dayWidthHalf);
+        final int startY = (int)(y - yRelativeToDay);
+        final int stopY = (int)(startY + mRowHeight);
 
-            j++;
-            if (j == mNumDays) {
-                j = 0;
-                y += mRowHeight;
-            }
-        }
+        drawMonthDay(canvas, mYear, mMonth, day, x, y, startX, stopX, startY, stopY);
     }
 
     /**
@@ -529,11 +798,74 @@ public abstract class MonthView extends View {
     public abstract void drawMonthDay(Canvas canvas, int year, int month, int day,
             int x, int y, int startX, int stopX, int startY, int stopY);
 
+    /**
+     * @param day The day of the month
+     * @param defaultColor The color to use if the day has no decoration color
+     * @return The decoration color of the given day
+     */
+    protected int getDecorationColor(int day, int defaultColor) {
+        if (mDecorations == null) return defaultColor;
+        final int colorIndex = mDecorations.getColorIndex(day);
+        if (colorIndex == 0 || colorIndex > mDecorationColors.length) return defaultColor;
+        return mDecorationColors[colorIndex - 1];
+    }
+
+    /**
+     * Draws the dots above and the label below the day number, if the day has any.
+     *
+     * @param canvas The canvas to draw on
+     * @param day The day number
+     * @param x The x position of the day number
+     * @param y The y position of the day number
+     * @param color The color to draw the decorations in
+     */
+    protected void drawDayDecorations(Canvas canvas, int day, int x, int y, int color) {
+        if (mDecorations == null) return;
+
+        final int dotCount = mDecorations.getDotCount(day);
+        if (dotCount > 0) {
+            mDecorationDotPaint.setColor(color);
+            final int spacing = DECORATION_DOT_RADIUS * 3;
+            final int dotY = y - MINI_DAY_NUMBER_TEXT_SIZE - DECORATION_DOT_RADIUS * 2;
+            int dotX = x - (dotCount - 1) * spacing / 2;
+            for (int i = 0; i < dotCount; i++) {
+                canvas.drawCircle(dotX, dotY, DECORATION_DOT_RADIUS, mDecorationDotPaint);
+                dotX += spacing;
+            }
+        }
+
+        final String label = mDecorations.getLabel(day);
+        if (label != null) {
+            mDecorationLabelPaint.setColor(color);
+            canvas.drawText(label, x, y + DECORATION_LABEL_TEXT_SIZE + DECORATION_DOT_RADIUS,
+                    mDecorationLabelPaint);
+        }
+    }
+
     protected int findDayOffset() {
         return (mDayOfWeekStart < mWeekStart ? (mDayOfWeekStart + mNumDays) : mDayOfWeekStart)
                 - mWeekStart;
     }
 
+    /**
+     * Computes the bounds of every day cell for the bound month and the current size, so
+     * hit testing and accessibility don't have to redo the grid arithmetic for every event.
+     */
+    private void updateGeometry() {
+        final int offsetX = mEdgePadding;
+        final int offsetY = getMonthHeaderSize();
+        final int cellHeight = mRowHeight;
+        final int cellWidth = ((mWidth - (2 * mEdgePadding)) / mNumDays);
+        for (int day = 1; day <= mNumCells; day++) {
+            final int index = ((day - 1) + mDayOffset);
+            final int row = (index / mNumDays);
+            final int column = (index % mNumDays);
+            mCellLeft[day] = (offsetX + (column * cellWidth));
+            mCellTop[day] = (offsetY + (row * cellHeight));
+            mCellRight[day] = mCellLeft[day] + cellWidth;
+            mCellBottom[day] = mCellTop[day] + cellHeight;
+        }
+    }
 
     /**
      * Calculates the day that the given x position is in, accounting for week
@@ -566,7 +898,7 @@ public abstract class MonthView extends View {
         int row = (int) (y - getMonthHeaderSize()) / mRowHeight;
         int column = (int) ((x - dayStart) * mNumDays / (mWidth - dayStart - mEdgePadding));
 
-        int day = column - findDayOffset() + 1;
+        int day = column - mDayOffset + 1;
         day += row * mNumDays;
         return day;
     }
@@ -581,7 +913,7 @@ public abstract class MonthView extends View {
      */
     private void onDayClick(int day) {
         // If the min / max date are set, only process the click if it's a valid selection.
-        if (mController.isOutOfRange(mYear, mMonth, day)) {
+        if ((mDayFlags[day] & DAY_FLAG_DISABLED) != 0) {
             return;
         }
 
@@ -595,70 +927,17 @@ public abstract class MonthView extends View {
     }
 
     /**
+     * Called for every day when the view is bound or its highlighted days change, the result is
+     * kept until then.
      * @param year
      * @param month
      * @param day
      * @return true if the given date should be highlighted
      */
     protected boolean isHighlighted(int year, int month, int day) {
-        Calendar[] highlightedDays = mController.getHighlightedDays();
-        if(highlightedDays == null) return false;
-        for (Calendar c : highlightedDays) {
-            if(year < c.get(Calendar.YEAR)) break;
-            if(year > c.get(Calendar.YEAR)) continue;
-            if(month < c.get(Calendar.MONTH)) break;
-            if(month > c.get(Calendar.MONTH)) continue;
-            if(day < c.get(Calendar.DAY_OF_MONTH)) break;
-            if(day > c.get(Calendar.DAY_OF_MONTH)) continue;
-            return true;
-        }
-        return false;
-    }
-
-    /**
-     * Return a 1 or 2 letter String for use as a weekday label
-     * @param day The day for which to generate a label
-     * @return The weekday label
-     */
-    private String getWeekDayLabel(Calendar day) {
-        Locale locale = Locale.getDefault();
-
-        // Localised short version of the string is not available on API < 18
-        if(Build.VERSION.SDK_INT < 18) {
-            String dayName = new SimpleDateFormat("E", locale).format(day.getTime());
-            String dayLabel = dayName.toUpperCase(locale).substring(0, 1);
-
-            // Chinese labels should be fetched right to left
-            if (locale.equals(Locale.CHINA) || locale.equals(Locale.CHINESE) || locale.equals(Locale.SIMPLIFIED_CHINESE) || locale.equals(Locale.TRADITIONAL_CHINESE)) {
-                int len = dayName.length();
-                dayLabel = dayName.substring(len -1, len);
-            }
-
-            // Most hebrew labels should select the second to last character
-            if (locale.getLanguage().equals("he") || locale.getLanguage().equals("iw")) {
-                if(mDayLabelCalendar.get(Calendar.DAY_OF_WEEK) != Calendar.SATURDAY) {
-                    int len = dayName.length();
-                    dayLabel = dayName.substring(len - 2, len - 1);
-                }
-                else {
-                    // I know this is duplication, but it makes the code easier to grok by
-                    // having all hebrew code in the same block
-                    dayLabel = dayName.toUpperCase(locale).substring(0, 1);
-                }
-            }
-
-            // Catalan labels should be two digits in lowercase
-            if (locale.getLanguage().equals("ca"))
-                dayLabel = dayName.toLowerCase().substring(0,2);
-
-            // Correct single character label in Spanish is X
-            if (locale.getLanguage().equals("es") && day.get(Calendar.DAY_OF_WEEK) == Calendar.WEDNESDAY)
-                dayLabel = "X";
-
-            return dayLabel;
-        }
-        // Getting the short label is a one liner on API >= 18
-        return new SimpleDateFormat("EEEEE", locale).format(day.getTime());
+        int mask = year == mYear && month == mMonth ?
+                mHighlightedDayMask : mController.getHighlightedDayMask(year, month);
+        return (mask & (1 << (day - 1))) != 0;
     }
 
     /**
@@ -705,6 +984,11 @@ public abstract class MonthView extends View {
 
         private final Rect mTempRect = new Rect();
         private final Calendar mTempCalendar = Calendar.getInstance();
+        // The description of each day of the bound month, indexed by day of the month
+        private final CharSequence[] mDescriptions = new CharSequence[32];
+        private boolean mDescriptionsValid = false;
+        private CharSequence mSelectedDescription;
+        private int mSelectedDescriptionDay;
 
         public MonthViewTouchHelper(View host) {
             super(host);
@@ -736,6 +1020,7 @@ public abstract class MonthView extends View {
 
         @Override
         protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            // Days fit in the Integer cache, so boxing them doesn't allocate
             for (int day = 1; day <= mNumCells; day++) {
                 virtualViewIds.add(day);
             }
@@ -780,17 +1065,7 @@ public abstract class MonthView extends View {
          * @param rect The rectangle in which to store the bounds
          */
         protected void getItemBounds(int day, Rect rect) {
-            final int offsetX = mEdgePadding;
-            final int offsetY = getMonthHeaderSize();
-            final int cellHeight = mRowHeight;
-            final int cellWidth = ((mWidth - (2 * mEdgePadding)) / mNumDays);
-            final int index = ((day - 1) + findDayOffset());
-            final int row = (index / mNumDays);
-            final int column = (index % mNumDays);
-            final int x = (offsetX + (column * cellWidth));
-            final int y = (offsetY + (row * cellHeight));
-
-            rect.set(x, y, (x + cellWidth), (y + cellHeight));
+            rect.set(mCellLeft[day], mCellTop[day], mCellRight[day], mCellBottom[day]);
         }
 
         /**
@@ -802,16 +1077,35 @@ public abstract class MonthView extends View {
          * @return A description of the time object
          */
         protected CharSequence getItemDescription(int day) {
-            mTempCalendar.set(mYear, mMonth, day);
-            final CharSequence date = DateFormat.format(DATE_FORMAT,
-                    mTempCalendar.getTimeInMillis());
+            if (!mDescriptionsValid) {
+                // Format the whole month at once, the framework queries every day in a row
+                for (int i = 1; i <= mNumCells; i++) {
+                    mTempCalendar.set(mYear, mMonth, i);
+                    mDescriptions[i] = DateFormat.format(DATE_FORMAT,
+                            mTempCalendar.getTimeInMillis());
+                }
+                mSelectedDescription = null;
+                mDescriptionsValid = true;
+            }
+            final CharSequence date = mDescriptions[day];
 
             if (day == mSelectedDay) {
-                return getContext().getString(R.string.mdtp_item_is_selected, date);
+                if (mSelectedDescription == null || mSelectedDescriptionDay != day) {
+                    mSelectedDescription = getContext().getString(R.string.mdtp_item_is_selected, date);
+                    mSelectedDescriptionDay = day;
+                }
+                return mSelectedDescription;
             }
 
             return date;
         }
+
+        /**
+         * Drops the cached descriptions, they are formatted again on the next query
+         */
+        public void invalidateDescriptions() {
+            mDescriptionsValid = false;
+        }
     }
 
     /**
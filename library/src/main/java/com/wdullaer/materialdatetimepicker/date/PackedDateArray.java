@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2013 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.wdullaer.materialdatetimepicker.date;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * A compact Parcelable list of dates, used to save the state of the date picker.
+ * Dates are stored as {@link EpochDay}s, delta encoded into variable length integers, so a
+ * list of consecutive days takes about one byte per day.
+ */
+public class PackedDateArray implements Parcelable {
+    // Bump this when changing the encoding, and keep reading the older versions
+    private static final int VERSION_DELTA_VARINT = 1;
+
+    private final int[] mEpochDays;
+
+    /**
+     * @param epochDays The dates to store. Storing them in ascending order gives the smallest
+     *                  encoding
+     */
+    public PackedDateArray(int[] epochDays) {
+        mEpochDays = epochDays;
+    }
+
+    public PackedDateArray(Calendar... dates) {
+        mEpochDays = new int[dates.length];
+        for (int i = 0; i < dates.length; i++) {
+            mEpochDays[i] = EpochDay.of(dates[i]);
+        }
+    }
+
+    public PackedDateArray(Parcel in) {
+        int version = in.readInt();
+        switch (version) {
+            case VERSION_DELTA_VARINT:
+                int count = in.readInt();
+                mEpochDays = decode(in.createByteArray(), count);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown PackedDateArray version " + version);
+        }
+    }
+
+    public int[] getEpochDays() {
+        return mEpochDays;
+    }
+
+    /**
+     * @return A new Calendar for every date in this array, set to the start of the day
+     */
+    public Calendar[] toCalendars() {
+        Calendar[] dates = new Calendar[mEpochDays.length];
+        for (int i = 0; i < mEpochDays.length; i++) {
+            Calendar date = Calendar.getInstance();
+            date.clear();
+            EpochDay.setCalendar(mEpochDays[i], date);
+            dates[i] = date;
+        }
+        return dates;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeInt(VERSION_DELTA_VARINT);
+        dest.writeInt(mEpochDays.length);
+        dest.writeByteArray(encode(mEpochDays));
+    }
+
+    /**
+     * Stores the difference with the previous day, zigzag encoded so small negative deltas
+     * stay small, as a little endian base 128 integer.
+     */
+    private static byte[] encode(int[] epochDays) {
+        byte[] buffer = new byte[epochDays.length * 5];
+        int length = 0;
+        int previous = 0;
+        for (int day : epochDays) {
+            int delta = day - previous;
+            int zigzag = (delta << 1) ^ (delta >> 31);
+            while ((zigzag & ~0x7f) != 0) {
+                buffer[length++] = (byte) ((zigzag & 0x7f) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[length++] = (byte) zigzag;
+            previous = day;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static int[] decode(byte[] buffer, int count) {
+        int[] epochDays = new int[count];
+        int position = 0;
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int zigzag = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer[position++];
+                zigzag |= (b & 0x7f) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            epochDays[i] = previous;
+        }
+        return epochDays;
+    }
+
+    public static final Parcelable.Creator<PackedDateArray> CREATOR
+            = new Parcelable.Creator<PackedDateArray>() {
+        public PackedDateArray createFromParcel(Parcel in) {
+            return new PackedDateArray(in);
+        }
+
+        public PackedDateArray[] newArray(int size) {
+            return new PackedDateArray[size];
+        }
+    };
+}
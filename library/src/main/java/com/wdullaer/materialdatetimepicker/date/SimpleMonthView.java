@@ -18,7 +18,7 @@ package com.wdullaer.materialdatetimepicker.date;
 
 import android.content.Context;
 import android.graphics.Canvas;
-import android.graphics.Typeface;
+import android.graphics.Paint;
 import android.util.AttributeSet;
 
 public class SimpleMonthView extends MonthView {
@@ -30,31 +30,35 @@ public class SimpleMonthView extends MonthView {
     @Override
     public void drawMonthDay(Canvas canvas, int year, int month, int day,
             int x, int y, int startX, int stopX, int startY, int stopY) {
-        if (mSelectedDay == day) {
+        final int flags = mDayFlags[day];
+        if ((flags & DAY_FLAG_SELECTED) != 0) {
             canvas.drawCircle(x , y - (MINI_DAY_NUMBER_TEXT_SIZE / 3), DAY_SELECTED_CIRCLE_SIZE,
                     mSelectedCirclePaint);
         }
 
-        if(isHighlighted(year, month, day)) {
-            mMonthNumPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
-        }
-        else {
-            mMonthNumPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.NORMAL));
-        }
-
+        final boolean highlighted = (flags & DAY_FLAG_HIGHLIGHTED) != 0;
+        final Paint paint;
         // If we have a mindate or maxdate, gray out the day number if it's outside the range.
-        if (mController.isOutOfRange(year, month, day)) {
-            mMonthNumPaint.setColor(mDisabledDayTextColor);
+        if ((flags & DAY_FLAG_LOADING) != 0) {
+            paint = mLoadingDayPaint;
+        }
+        else if ((flags & DAY_FLAG_DISABLED) != 0) {
+            paint = highlighted ? mHighlightedDisabledDayPaint : mDisabledDayPaint;
         }
-        else if (mSelectedDay == day) {
-            mMonthNumPaint.setTypeface(Typeface.create(Typeface.DEFAULT, Typeface.BOLD));
-            mMonthNumPaint.setColor(mSelectedDayTextColor);
-        } else if (mHasToday && mToday == day) {
-            mMonthNumPaint.setColor(mTodayNumberColor);
+        else if ((flags & DAY_FLAG_SELECTED) != 0) {
+            paint = mSelectedDayPaint;
+        } else if ((flags & DAY_FLAG_TODAY) != 0) {
+            paint = highlighted ? mHighlightedTodayPaint : mTodayPaint;
+        } else if (highlighted) {
+            paint = mHighlightedDayPaint;
+        } else if (mDecorations != null) {
+            mDecoratedDayPaint.setColor(getDecorationColor(day, mDayTextColor));
+            paint = mDecoratedDayPaint;
         } else {
-            mMonthNumPaint.setColor(isHighlighted(year, month, day) ? mHighlightedDayTextColor : mDayTextColor);
+            paint = mNormalDayPaint;
         }
 
-        canvas.drawText(String.format("%d", day), x, y, mMonthNumPaint);
+        canvas.drawText(mDayNumbers[day], x, y, paint);
+        drawDayDecorations(canvas, day, x, y, paint.getColor());
     }
 }
@@ -37,9 +37,15 @@ public class TextViewWithCircularIndicator extends TextView {
 
     private static final int SELECTED_CIRCLE_ALPHA = 255;
 
+    // The text colors of the last accent and theme, shared by all year labels
+    private static ColorStateList sTextColor;
+    private static int sTextColorAccent;
+    private static boolean sTextColorDarkMode;
+
     Paint mCirclePaint = new Paint();
 
     private int mCircleColor;
+    private ColorStateList mTextColor;
     private final String mItemIsSelectedText;
 
     private boolean mDrawCircle;
@@ -61,10 +67,25 @@ public class TextViewWithCircularIndicator extends TextView {
         mCirclePaint.setAlpha(SELECTED_CIRCLE_ALPHA);
     }
 
+    /**
+     * Sets the color of the circle and the text. Does nothing if the colors didn't change, so
+     * it can be called on every bind.
+     */
     public void setAccentColor(int color, boolean darkMode) {
-        mCircleColor = color;
-        mCirclePaint.setColor(mCircleColor);
-        setTextColor(createTextColor(color, darkMode));
+        if (color != mCircleColor) {
+            mCircleColor = color;
+            mCirclePaint.setColor(mCircleColor);
+            invalidate();
+        }
+        if (sTextColor == null || sTextColorAccent != color || sTextColorDarkMode != darkMode) {
+            sTextColor = createTextColor(color, darkMode);
+            sTextColorAccent = color;
+            sTextColorDarkMode = darkMode;
+        }
+        if (mTextColor != sTextColor) {
+            mTextColor = sTextColor;
+            setTextColor(mTextColor);
+        }
     }
 
     /**
@@ -87,8 +108,15 @@ public class TextViewWithCircularIndicator extends TextView {
         return new ColorStateList(states, colors);
     }
 
+    /**
+     * Shows or hides the circle, and selects the view so the text uses the selected color.
+     * Only redraws the view if the circle changed, as the size of the text is not affected.
+     */
     public void drawIndicator(boolean drawCircle) {
+        setSelected(drawCircle);
+        if (drawCircle == mDrawCircle) return;
         mDrawCircle = drawCircle;
+        invalidate();
     }
 
     @Override
@@ -99,7 +127,8 @@ public class TextViewWithCircularIndicator extends TextView {
             int radius = Math.min(width, height) / 2;
             canvas.drawCircle(width / 2, height / 2, radius, mCirclePaint);
         }
-        setSelected(mDrawCircle);
+        // ListView clears the selected state of the children it lays out in touch mode
+        if (isSelected() != mDrawCircle) setSelected(mDrawCircle);
         super.onDraw(canvas);
     }
 
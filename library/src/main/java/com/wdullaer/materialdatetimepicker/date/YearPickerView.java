@@ -19,20 +19,19 @@ package com.wdullaer.materialdatetimepicker.date;
 import android.content.Context;
 import android.content.res.Resources;
 import android.graphics.drawable.StateListDrawable;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.accessibility.AccessibilityEvent;
 import android.widget.AdapterView;
 import android.widget.AdapterView.OnItemClickListener;
-import android.widget.ArrayAdapter;
+import android.widget.BaseAdapter;
 import android.widget.ListView;
-import android.widget.TextView;
 
 import com.wdullaer.materialdatetimepicker.R;
 import com.wdullaer.materialdatetimepicker.date.DatePickerDialog.OnDateChangedListener;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Locale;
 
 /**
  * Displays a selectable list of years.
@@ -44,7 +43,6 @@ public class YearPickerView extends ListView implements OnItemClickListener, OnD
     private YearAdapter mAdapter;
     private int mViewSize;
     private int mChildSize;
-    private TextViewWithCircularIndicator mSelectedView;
 
     /**
      * @param context
@@ -69,55 +67,78 @@ public class YearPickerView extends ListView implements OnItemClickListener, OnD
     }
 
     private void init(Context context) {
-        ArrayList<String> years = new ArrayList<>();
-        for (int year = mController.getMinYear(); year <= mController.getMaxYear(); year++) {
-            years.add(String.format("%d", year));
-        }
-        mAdapter = new YearAdapter(context, R.layout.mdtp_year_label_text_view, years);
+        mAdapter = new YearAdapter(context);
         setAdapter(mAdapter);
     }
 
     @Override
     public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
         mController.tryVibrate();
-        TextViewWithCircularIndicator clickedView = (TextViewWithCircularIndicator) view;
-        if (clickedView != null) {
-            if (clickedView != mSelectedView) {
-                if (mSelectedView != null) {
-                    mSelectedView.drawIndicator(false);
-                    mSelectedView.requestLayout();
-                }
-                clickedView.drawIndicator(true);
-                clickedView.requestLayout();
-                mSelectedView = clickedView;
+        // The indicator is moved by onDateChanged()
+        mController.onYearSelected(mAdapter.getYear(position));
+    }
+
+    /**
+     * Moves the indicator to the given year. Only the views of the previous and the new
+     * selected year are touched, the others are left alone.
+     */
+    private void updateSelectedYear(int selectedYear) {
+        final int firstPosition = getFirstVisiblePosition();
+        for (int i = 0; i < getChildCount(); i++) {
+            View child = getChildAt(i);
+            if (child instanceof TextViewWithCircularIndicator) {
+                ((TextViewWithCircularIndicator) child).drawIndicator(
+                        mAdapter.getYear(firstPosition + i) == selectedYear);
             }
-            mController.onYearSelected(getYearFromTextView(clickedView));
-            mAdapter.notifyDataSetChanged();
         }
     }
 
-    private static int getYearFromTextView(TextView view) {
-        return Integer.valueOf(view.getText().toString());
-    }
+    /**
+     * Computes the years from their position, so no list of labels has to be built upfront
+     * however wide the year range is.
+     */
+    private class YearAdapter extends BaseAdapter {
+        private final LayoutInflater mInflater;
+
+        public YearAdapter(Context context) {
+            mInflater = LayoutInflater.from(context);
+        }
 
-    private class YearAdapter extends ArrayAdapter<String> {
+        public int getYear(int position) {
+            return mController.getMinYear() + position;
+        }
 
-        public YearAdapter(Context context, int resource, List<String> objects) {
-            super(context, resource, objects);
+        @Override
+        public int getCount() {
+            return mController.getMaxYear() - mController.getMinYear() + 1;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return DateLabels.getYear(Locale.getDefault(), getYear(position));
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return getYear(position);
+        }
+
+        @Override
+        public boolean hasStableIds() {
+            return true;
         }
 
         @Override
         public View getView(int position, View convertView, ViewGroup parent) {
-            TextViewWithCircularIndicator v = (TextViewWithCircularIndicator)
-                    super.getView(position, convertView, parent);
-            v.setAccentColor(mController.getAccentColor(), mController.isThemeDark());
-            v.requestLayout();
-            int year = getYearFromTextView(v);
-            boolean selected = mController.getSelectedDay().year == year;
-            v.drawIndicator(selected);
-            if (selected) {
-                mSelectedView = v;
+            TextViewWithCircularIndicator v = (TextViewWithCircularIndicator) convertView;
+            if (v == null) {
+                v = (TextViewWithCircularIndicator) mInflater.inflate(
+                        R.layout.mdtp_year_label_text_view, parent, false);
             }
+            final int year = getYear(position);
+            v.setText(DateLabels.getYear(Locale.getDefault(), year));
+            v.setAccentColor(mController.getAccentColor(), mController.isThemeDark());
+            v.drawIndicator(EpochDay.year(mController.getSelectedEpochDay()) == year);
             return v;
         }
     }
@@ -147,8 +168,9 @@ public class YearPickerView extends ListView implements OnItemClickListener, OnD
 
     @Override
     public void onDateChanged() {
-        mAdapter.notifyDataSetChanged();
-        postSetSelectionCentered(mController.getSelectedDay().year - mController.getMinYear());
+        final int selectedYear = EpochDay.year(mController.getSelectedEpochDay());
+        updateSelectedYear(selectedYear);
+        postSetSelectionCentered(selectedYear - mController.getMinYear());
     }
 
     @Override